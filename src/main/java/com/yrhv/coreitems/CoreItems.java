@@ -14,11 +14,14 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.StandardCopyOption;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 
 public class CoreItems extends JavaPlugin {
     private NamespaceManager namespaceManager;
     private MenuManager menuManager;
     private PlayerDataManager playerDataManager;
+    private final AtomicBoolean reloading = new AtomicBoolean(false);
     
     @Override
     public void onEnable() {
@@ -40,6 +43,7 @@ public class CoreItems extends JavaPlugin {
         // Initialize the namespace manager
         namespaceManager = new NamespaceManager(this);
         namespaceManager.loadNamespaces();
+        namespaceManager.updateWatcher();
         
         // Initialize the menu manager
         menuManager = new MenuManager(this);
@@ -53,6 +57,7 @@ public class CoreItems extends JavaPlugin {
         // Register event listeners
         getServer().getPluginManager().registerEvents(new CustomItemListener(this, namespaceManager, playerDataManager), this);
         getServer().getPluginManager().registerEvents(new MenuListener(this), this);
+        menuManager.getChatPrompts().start();
         
         getLogger().info("CoreItems plugin enabled!");
     }
@@ -76,21 +81,41 @@ public class CoreItems extends JavaPlugin {
     }
     
     /**
-     * Reloads the plugin configuration and player data
+     * Reloads the plugin configuration, namespaces and player data without blocking the server.
+     * Namespace files are parsed in the background and the new catalog is swapped in on the
+     * main thread in one step; players are then rescanned by the regular round-robin scanner,
+     * which saves the player data in the background when it is done.
+     * @param progress Receives progress messages, on the main thread
+     * @param whenDone Called on the main thread once the new catalog is in place, with false if
+     *                 loading the namespaces failed and the previous catalog is kept
+     * @return False if a reload is already running, in which case nothing is done
      */
-    public void reload() {
+    public boolean reload(Consumer<String> progress, Consumer<Boolean> whenDone) {
+        if (!reloading.compareAndSet(false, true)) {
+            return false;
+        }
+        
         // Reload config
         reloadConfig();
         
-        // Reload namespaces
-        namespaceManager.loadNamespaces();
-        
-        // Reload player data
-        playerDataManager.onReload();
-        
-        getLogger().info("CoreItems plugin configuration reloaded!");
+        // Reload namespaces, then player data once the new catalog is published
+        namespaceManager.loadNamespacesAsync(progress, success -> {
+            try {
+                if (success) {
+                    namespaceManager.updateWatcher();
+                    playerDataManager.onReload();
+                    getLogger().info("CoreItems plugin configuration reloaded!");
+                } else {
+                    getLogger().warning("CoreItems reload failed, the previous items are still loaded");
+                }
+            } finally {
+                reloading.set(false);
+                whenDone.accept(success);
+            }
+        });
+        return true;
     }
-
+    
     @Override
     public void onDisable() {
         // Save player data and clean up
@@ -98,6 +123,10 @@ public class CoreItems extends JavaPlugin {
             playerDataManager.shutdown();
         }
         
+        if (namespaceManager != null) {
+            namespaceManager.shutdown();
+        }
+        
         getLogger().info("CoreItems plugin disabled!");
     }
     
@@ -153,7 +182,7 @@ public class CoreItems extends JavaPlugin {
             // Copy the file content directly to preserve all comments
             Files.copy(is, templateFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
             getLogger().info("Copied customs.yml template to template_file directory for reference");
-            
+        
         } catch (IOException e) {
             getLogger().warning("Failed to copy customs.yml template: " + e.getMessage());
         }
@@ -0,0 +1,149 @@
+package com.yrhv.coreitems.give.command;
+
+import com.yrhv.coreitems.CoreItems;
+import com.yrhv.coreitems.give.storage.ItemCirculationSampler;
+import com.yrhv.coreitems.give.storage.PlayerDataManager;
+import com.yrhv.coreitems.namespace.model.ItemEntry;
+import com.yrhv.coreitems.namespace.model.ItemNamespace;
+import org.bukkit.ChatColor;
+import org.bukkit.command.CommandSender;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Command to show how many of a custom item existed over time
+ */
+public class CirculationCommand {
+    private final CoreItems plugin;
+    private final int MAX_LINES = 12;
+    private final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("MM-dd HH:mm").withZone(ZoneId.systemDefault());
+
+    public CirculationCommand(CoreItems plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Execute the circulation command
+     * @param sender Command sender
+     * @param args Command arguments
+     * @return true if command was successful
+     */
+    public boolean execute(CommandSender sender, String[] args) {
+        if (!sender.hasPermission("coreitems.circulation")) {
+            sender.sendMessage(ChatColor.RED + "You don't have permission to use this command!");
+            return true;
+        }
+        
+        if (args.length < 2) {
+            sender.sendMessage(ChatColor.RED + "Usage: /coreitems circulation <item> [hours]");
+            return true;
+        }
+        
+        PlayerDataManager playerDataManager = plugin.getPlayerDataManager();
+        if (!playerDataManager.isCirculationEnabled()) {
+            sender.sendMessage(ChatColor.RED + "Item circulation sampling is disabled in the config.");
+            return true;
+        }
+        
+        // Tracking data is keyed by item ID only, accept namespace:item for convenience
+        String itemId = args[1];
+        if (itemId.contains(":")) {
+            itemId = itemId.substring(itemId.indexOf(':') + 1);
+        }
+        
+        int hours = 24;
+        if (args.length >= 3) {
+            try {
+                hours = Math.max(1, Integer.parseInt(args[2]));
+            } catch (NumberFormatException e) {
+                sender.sendMessage(ChatColor.RED + "Invalid number of hours. Using 24.");
+            }
+        }
+        
+        long now = System.currentTimeMillis();
+        List<ItemCirculationSampler.Sample> samples = playerDataManager.getCirculationHistory(itemId, now - hours * 3600_000L, now);
+        
+        if (samples.isEmpty()) {
+            sender.sendMessage(ChatColor.YELLOW + "No circulation samples for '" + itemId + "' in the last " + hours + " hours.");
+            return true;
+        }
+        
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (ItemCirculationSampler.Sample sample : samples) {
+            min = Math.min(min, sample.getTotal());
+            max = Math.max(max, sample.getTotal());
+        }
+        long first = samples.get(0).getTotal();
+        long last = samples.get(samples.size() - 1).getTotal();
+        
+        sender.sendMessage(ChatColor.GREEN + "======= " + ChatColor.YELLOW + "Circulation of '" + itemId + "' " +
+                ChatColor.GREEN + "(" + ChatColor.YELLOW + "last " + hours + "h" + ChatColor.GREEN + ") =======");
+        sender.sendMessage(ChatColor.GRAY + "Samples: " + ChatColor.WHITE + samples.size() +
+                ChatColor.GRAY + "  Min: " + ChatColor.WHITE + min +
+                ChatColor.GRAY + "  Max: " + ChatColor.WHITE + max +
+                ChatColor.GRAY + "  Change: " + formatChange(last - first));
+        
+        // Show an evenly spaced selection of samples, always including the newest one
+        int step = Math.max(1, (int) Math.ceil((double) samples.size() / MAX_LINES));
+        long previous = -1;
+        for (int i = 0; i < samples.size(); i += step) {
+            int index = Math.min(i + step - 1, samples.size() - 1);
+            ItemCirculationSampler.Sample sample = samples.get(index);
+            
+            String change = previous < 0 ? "" : " " + formatChange(sample.getTotal() - previous);
+            sender.sendMessage(ChatColor.YELLOW + TIME_FORMAT.format(Instant.ofEpochMilli(sample.getTimestamp())) +
+                    ChatColor.GRAY + " - " + ChatColor.WHITE + sample.getTotal() + change);
+            previous = sample.getTotal();
+        }
+        
+        return true;
+    }
+
+    private String formatChange(long change) {
+        if (change > 0) {
+            return ChatColor.RED + "+" + change;
+        } else if (change < 0) {
+            return ChatColor.GREEN + String.valueOf(change);
+        }
+        return ChatColor.GRAY + "0";
+    }
+
+    /**
+     * Tab complete for the circulation command
+     * @param sender Command sender
+     * @param args Command arguments
+     * @return List of tab completions
+     */
+    public List<String> tabComplete(CommandSender sender, String[] args) {
+        List<String> completions = new ArrayList<>();
+        
+        if (!sender.hasPermission("coreitems.circulation")) {
+            return completions;
+        }
+        
+        if (args.length == 2) {
+            // Complete item IDs from every namespace
+            String partial = args[1].toLowerCase();
+            for (ItemNamespace namespace : plugin.getNamespaceManager().getNamespaces().values()) {
+                for (ItemEntry entry : namespace.getEntries()) {
+                    if (entry.getId().toLowerCase().startsWith(partial) && !completions.contains(entry.getId())) {
+                        completions.add(entry.getId());
+                    }
+                }
+            }
+        } else if (args.length == 3) {
+            for (String hours : new String[] {"1", "6", "24", "168"}) {
+                if (hours.startsWith(args[2])) {
+                    completions.add(hours);
+                }
+            }
+        }
+        
+        return completions;
+    }
+}
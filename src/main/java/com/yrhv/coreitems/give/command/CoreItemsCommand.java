@@ -20,12 +20,14 @@ public class CoreItemsCommand implements CommandExecutor, TabCompleter {
     private final GiveCommand giveCommand;
     private final ReloadCommand reloadCommand;
     private final ListCommand listCommand;
+    private final CirculationCommand circulationCommand;
 
     public CoreItemsCommand(CoreItems plugin) {
         this.plugin = plugin;
         this.giveCommand = new GiveCommand(plugin);
         this.reloadCommand = new ReloadCommand(plugin);
         this.listCommand = new ListCommand(plugin);
+        this.circulationCommand = new CirculationCommand(plugin);
     }
     
     @Override
@@ -77,6 +79,8 @@ public class CoreItemsCommand implements CommandExecutor, TabCompleter {
                 return listCommand.execute(sender, args);
             } else if (subCommand.equals("reload")) {
                 return reloadCommand.execute(sender, args);
+            } else if (subCommand.equals("circulation")) {
+                return circulationCommand.execute(sender, args);
             }
 
             sendHelpMessage(sender);
@@ -108,6 +112,9 @@ public class CoreItemsCommand implements CommandExecutor, TabCompleter {
             if ("list".startsWith(partial)) {
                 completions.add("list");
             }
+            if ("circulation".startsWith(partial) && sender.hasPermission("coreitems.circulation")) {
+                completions.add("circulation");
+            }
             if ("menu".startsWith(partial) && sender.hasPermission("coreitems.menu")) {
                 completions.add("menu");
             }
@@ -123,6 +130,8 @@ public class CoreItemsCommand implements CommandExecutor, TabCompleter {
             return giveCommand.tabComplete(sender, args);
         } else if (subCommand.equals("list")) {
             return listCommand.tabComplete(sender, args);
+        } else if (subCommand.equals("circulation")) {
+            return circulationCommand.tabComplete(sender, args);
         }
 
         return completions;
@@ -140,6 +149,11 @@ public class CoreItemsCommand implements CommandExecutor, TabCompleter {
         sender.sendMessage(ChatColor.YELLOW + "/coreitems list <namespace> [page]" +
                 ChatColor.WHITE + " - List all items in a namespace");
 
+        if (sender.hasPermission("coreitems.circulation")) {
+            sender.sendMessage(ChatColor.YELLOW + "/coreitems circulation <item> [hours]" +
+                    ChatColor.WHITE + " - Show how many of an item existed over time");
+        }
+
         if (sender.hasPermission("coreitems.reload")) {
             sender.sendMessage(ChatColor.YELLOW + "/coreitems reload" +
                     ChatColor.WHITE + " - Reload the plugin");
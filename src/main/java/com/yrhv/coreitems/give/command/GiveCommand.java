@@ -55,6 +55,13 @@ public class GiveCommand {
             target.sendMessage(ChatColor.GREEN + "You received a custom item: " + namespaceName + ":" + itemId);
         } else {
             sender.sendMessage(ChatColor.RED + "Custom item not found: " + namespaceName + ":" + itemId);
+            
+            // Most misses are typos, suggest the closest item IDs
+            List<String> suggestions = plugin.getNamespaceManager().getRegistry().getFuzzyIndex()
+                    .suggestItems(namespaceName + ":" + itemId, 5);
+            if (!suggestions.isEmpty()) {
+                sender.sendMessage(ChatColor.YELLOW + "Did you mean: " + String.join(", ", suggestions) + "?");
+            }
         }
         
         return true;
@@ -96,7 +103,7 @@ public class GiveCommand {
             
             ItemNamespace namespace = plugin.getNamespaceManager().getNamespace(namespaceName);
             if (namespace != null) {
-                for (String item : namespace.getItems().keySet()) {
+                for (String item : namespace.getItemIds()) {
                     if (item.toLowerCase().startsWith(partial)) {
                         completions.add(item);
                     }
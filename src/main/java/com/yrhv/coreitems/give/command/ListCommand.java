@@ -2,13 +2,14 @@ package com.yrhv.coreitems.give.command;
 
 import com.yrhv.coreitems.CoreItems;
 import com.yrhv.coreitems.give.model.CustomItem;
+import com.yrhv.coreitems.namespace.model.ItemEntry;
 import com.yrhv.coreitems.namespace.model.ItemNamespace;
+import com.yrhv.coreitems.namespace.model.ItemRegistry;
 import org.bukkit.ChatColor;
 import org.bukkit.command.CommandSender;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 
 /**
  * Command to list all items in a namespace
@@ -35,24 +36,31 @@ public class ListCommand {
         }
 
         String namespaceName = args[1];
+        
+        // One snapshot for the whole listing, so a reload can't change it halfway
+        ItemRegistry registry = plugin.getNamespaceManager().getRegistry();
 
         // Check if the namespace exists
-        ItemNamespace namespace = plugin.getNamespaceManager().getNamespace(namespaceName);
+        ItemNamespace namespace = registry.getNamespace(namespaceName);
         if (namespace == null) {
             sender.sendMessage(ChatColor.RED + "Namespace '" + namespaceName + "' not found!");
+            
+            List<String> suggestions = registry.getFuzzyIndex()
+                    .suggestNamespaces(namespaceName, 5);
+            if (!suggestions.isEmpty()) {
+                sender.sendMessage(ChatColor.YELLOW + "Did you mean: " + String.join(", ", suggestions) + "?");
+            }
             return true;
         }
 
-        // Get all items in the namespace
-        Map<String, CustomItem> items = namespace.getItems();
-        
-        if (items.isEmpty()) {
+        // Get all item entries in the namespace, only the shown page is built
+        if (namespace.getItemCount() == 0) {
             sender.sendMessage(ChatColor.YELLOW + "No items found in namespace '" + namespaceName + "'!");
             return true;
         }
 
-        // Convert to list for pagination
-        List<Map.Entry<String, CustomItem>> itemList = new ArrayList<>(items.entrySet());
+        // Presorted list, pages are read from it directly
+        List<ItemEntry> itemList = registry.getSortedEntries(namespaceName);
         
         // Determine page number
         int page = 1;
@@ -86,9 +94,10 @@ public class ListCommand {
 
         // Display items for the current page
         for (int i = startIndex; i < endIndex; i++) {
-            Map.Entry<String, CustomItem> entry = itemList.get(i);
-            String itemId = entry.getKey();
-            CustomItem item = entry.getValue();
+            ItemEntry entry = itemList.get(i);
+            String itemId = entry.getId();
+            CustomItem item = entry.get();
+            if (item == null) continue;
             
             // Get the item's display name or use the ID if no name
             String displayName = item.getDisplayName();
@@ -133,7 +142,7 @@ public class ListCommand {
         if (args.length == 2) {
             // Complete namespace names
             String partial = args[1].toLowerCase();
-            for (String namespace : plugin.getNamespaceManager().getNamespaces().keySet()) {
+            for (String namespace : plugin.getNamespaceManager().getRegistry().getSortedNamespaceNames()) {
                 if (namespace.toLowerCase().startsWith(partial)) {
                     completions.add(namespace);
                 }
@@ -144,7 +153,7 @@ public class ListCommand {
             ItemNamespace namespace = plugin.getNamespaceManager().getNamespace(namespaceName);
             
             if (namespace != null) {
-                int itemCount = namespace.getItems().size();
+                int itemCount = namespace.getItemCount();
                 int totalPages = (int) Math.ceil((double) itemCount / ITEMS_PER_PAGE);
                 
                 // Only suggest page numbers if there are multiple pages
@@ -29,9 +29,22 @@ public class ReloadCommand {
             return true;
         }
         
-        // Use the new reload method which includes player data reload
-        plugin.reload();
-        sender.sendMessage(ChatColor.GREEN + "CoreItems configuration and player data reloaded!");
+        // Runs in the background, progress is reported as it goes
+        boolean started = plugin.reload(
+                message -> sender.sendMessage(ChatColor.GRAY + message),
+                success -> {
+                    if (success) {
+                        sender.sendMessage(ChatColor.GREEN + "CoreItems reloaded! Player data is rescanned in the background.");
+                    } else {
+                        sender.sendMessage(ChatColor.RED + "CoreItems reload failed, see the console. The previous items are still loaded.");
+                    }
+                });
+        if (!started) {
+            sender.sendMessage(ChatColor.RED + "A reload is already running, please wait for it to finish.");
+            return true;
+        }
+        
+        sender.sendMessage(ChatColor.YELLOW + "Reloading CoreItems...");
         return true;
     }
 
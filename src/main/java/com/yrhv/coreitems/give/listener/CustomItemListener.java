@@ -5,7 +5,10 @@ import com.yrhv.coreitems.give.model.CommandProperties;
 import com.yrhv.coreitems.give.model.CustomItem;
 import com.yrhv.coreitems.give.storage.PlayerDataManager;
 import com.yrhv.coreitems.namespace.manager.NamespaceManager;
+import com.yrhv.coreitems.namespace.model.ItemEntry;
 import com.yrhv.coreitems.namespace.model.ItemNamespace;
+import com.yrhv.coreitems.namespace.model.ItemRegistry;
+import com.yrhv.coreitems.namespace.model.RegistryDiff;
 import org.bukkit.ChatColor;
 import org.bukkit.Material;
 import org.bukkit.entity.Player;
@@ -19,6 +22,8 @@ import org.bukkit.event.player.PlayerQuitEvent;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.ItemMeta;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
@@ -49,6 +54,7 @@ public class CustomItemListener implements Listener {
         this.plugin = plugin;
         this.namespaceManager = namespaceManager;
         this.playerDataManager = playerDataManager;
+        namespaceManager.addRegistryListener(this::onCatalogChanged);
     }
     
     @EventHandler
@@ -281,12 +287,12 @@ public class CustomItemListener implements Listener {
      * Find a matching custom item from all namespaces
      */
     private CustomItem findMatchingCustomItem(ItemStack item) {
-        for (String namespaceName : namespaceManager.getNamespaceNames()) {
-            ItemNamespace namespace = namespaceManager.getNamespace(namespaceName);
-            if (namespace == null) continue;
-            
-            for (CustomItem customItem : namespace.getItems().values()) {
-                if (isSimilarItem(item, customItem)) {
+        // One snapshot for the whole lookup, safe to read from any thread.
+        // Only items of the same material are considered, so lazy items of other materials stay unbuilt
+        for (ItemNamespace namespace : namespaceManager.getRegistry().getNamespaces().values()) {
+            for (ItemEntry entry : namespace.getEntriesWithMaterial(item.getType())) {
+                CustomItem customItem = entry.get();
+                if (customItem != null && isSimilarItem(item, customItem)) {
                     return customItem;
                 }
             }
@@ -343,8 +349,53 @@ public class CustomItemListener implements Listener {
         UUID playerUUID = event.getPlayer().getUniqueId();
         cooldownData.remove(playerUUID);
         lastMessageData.remove(playerUUID);
+        playerDataManager.onPlayerQuit(event.getPlayer());
+    }
+    
+    /**
+     * Moves the cooldown state of renamed items to their new ID and drops the state of items
+     * that no longer exist. Changed items keep their state, it is keyed by item ID.
+     * @param diff The catalog changes
+     */
+    private void onCatalogChanged(RegistryDiff diff) {
+        if (diff.getRenamed().isEmpty() && diff.getRemoved().isEmpty()) return;
+        
+        // State is keyed by the item ID without namespace, only move or drop IDs no namespace uses anymore
+        ItemRegistry registry = namespaceManager.getRegistry();
+        List<RegistryDiff.Rename> renames = new ArrayList<>();
+        for (RegistryDiff.Rename rename : diff.getRenamed()) {
+            if (!registry.isItemIdInUse(rename.getOldId())) {
+                renames.add(rename);
+            }
+        }
+        List<String> removedIds = new ArrayList<>();
+        for (String fullId : diff.getRemoved()) {
+            String itemId = fullId.substring(fullId.indexOf(':') + 1);
+            if (!registry.isItemIdInUse(itemId)) {
+                removedIds.add(itemId);
+            }
+        }
+        
+        migrateItemState(cooldownData, renames, removedIds);
+        migrateItemState(lastMessageData, renames, removedIds);
     }
     
+    private static void migrateItemState(Map<UUID, Map<String, Map<String, Long>>> data,
+                                         List<RegistryDiff.Rename> renames, List<String> removedIds) {
+        for (Map<String, Map<String, Long>> itemState : data.values()) {
+            for (RegistryDiff.Rename rename : renames) {
+                Map<String, Long> state = itemState.remove(rename.getOldId());
+                if (state != null) {
+                    itemState.putIfAbsent(rename.getNewId(), state);
+                }
+            }
+            for (String itemId : removedIds) {
+                itemState.remove(itemId);
+            }
+        }
+    }
+    
+    
     /**
      * Get the cooldown expiration time for a player, item, and command
      * @param playerUUID The player UUID
@@ -1,42 +1,37 @@
 package com.yrhv.coreitems.give.manager;
 
 import com.yrhv.coreitems.give.model.CustomItem;
-import org.bukkit.ChatColor;
-import org.bukkit.Material;
-import org.bukkit.NamespacedKey;
-import org.bukkit.Registry;
+import com.yrhv.coreitems.namespace.util.ItemParser;
+import com.yrhv.coreitems.namespace.util.LoadDiagnostics;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.configuration.file.YamlConfiguration;
-import org.bukkit.enchantments.Enchantment;
 import org.bukkit.entity.Player;
-import org.bukkit.inventory.ItemFlag;
 import org.bukkit.plugin.java.JavaPlugin;
 
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Files;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.logging.Level;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-import java.util.stream.Collectors;
 
 public class CustomItemManager {
     private final JavaPlugin plugin;
     private final Map<String, CustomItem> customItems;
+    private final ItemParser itemParser = new ItemParser();
     private File customFile;
     private FileConfiguration customConfig;
-
+    
     public CustomItemManager(JavaPlugin plugin) {
         this.plugin = plugin;
         this.customItems = new HashMap<>();
         loadCustomItems();
     }
-
+    
     /**
      * Loads custom items from the customs.yml file
      */
@@ -54,6 +49,8 @@ public class CustomItemManager {
         customConfig = YamlConfiguration.loadConfiguration(customFile);
         
         // Process each item section
+        LoadDiagnostics diagnostics = new LoadDiagnostics();
+        List<ItemParser.PendingEnchantment> pendingEnchantments = new ArrayList<>();
         for (String key : customConfig.getKeys(false)) {
             if (key.startsWith("#")) continue; // Skip comment sections
             
@@ -61,131 +58,18 @@ public class CustomItemManager {
             if (section == null) continue;
             
             try {
-                CustomItem item = parseCustomItem(key, section);
+                CustomItem item = itemParser.parse(key, section, customFile.getName(), diagnostics, pendingEnchantments);
                 customItems.put(key.toLowerCase(), item);
-                plugin.getLogger().info("Loaded custom item: " + key);
             } catch (Exception e) {
-                plugin.getLogger().log(Level.WARNING, "Failed to load custom item: " + key, e);
+                diagnostics.error(customFile.getName(), key, "Failed to load custom item: " + e.getMessage());
             }
         }
+        itemParser.resolveEnchantments(pendingEnchantments, customFile.getName(), diagnostics);
         
+        diagnostics.report(plugin.getLogger(), customFile.getName());
         plugin.getLogger().info("Loaded " + customItems.size() + " custom items");
     }
     
-    /**
-     * Parse a custom item from its configuration section
-     */
-    private CustomItem parseCustomItem(String identifier, ConfigurationSection section) {
-        CustomItem item = new CustomItem(identifier);
-        
-        // Material is required
-        String materialName = section.getString("material");
-        if (materialName == null) {
-            throw new IllegalArgumentException("Custom item " + identifier + " is missing material property");
-        }
-        
-        Material material = Material.matchMaterial(materialName);
-        if (material == null) {
-            throw new IllegalArgumentException("Invalid material for custom item " + identifier + ": " + materialName);
-        }
-        
-        item.setMaterial(material);
-        
-        // Parse optional properties
-        if (section.contains("name")) {
-            String name = section.getString("name");
-            name = translateHexColorCodes(name);
-            item.setDisplayName(ChatColor.translateAlternateColorCodes('&', name));
-        }
-        
-        if (section.contains("lore")) {
-            List<String> lore = section.getStringList("lore").stream()
-                    .map(this::translateHexColorCodes)
-                    .map(line -> ChatColor.translateAlternateColorCodes('&', line))
-                    .collect(Collectors.toList());
-            item.setLore(lore);
-        }
-        
-        if (section.contains("custom-model-data")) {
-            item.setCustomModelData(section.getInt("custom-model-data"));
-        }
-        
-        if (section.contains("unbreakable")) {
-            item.setUnbreakable(section.getBoolean("unbreakable"));
-        }
-        
-        if (section.contains("hide-attributes")) {
-            item.setHideAttributes(section.getBoolean("hide-attributes"));
-        }
-        
-        if (section.contains("glowing")) {
-            item.setGlowing(section.getBoolean("glowing"));
-        }
-        
-        if (section.contains("is_enchanted")) {
-            item.setEnchanted(section.getBoolean("is_enchanted"));
-        }
-        
-        // Parse enchantments
-        if (section.contains("enchantments")) {
-            ConfigurationSection enchants = section.getConfigurationSection("enchantments");
-            if (enchants != null) {
-                for (String enchantKey : enchants.getKeys(false)) {
-                    try {
-                        // Convert enchantment name to minecraft key format (lowercase, no underscores)
-                        String formattedKey = enchantKey.toLowerCase().replace("_", "");
-                        Enchantment enchantment = Registry.ENCHANTMENT.get(NamespacedKey.minecraft(formattedKey));
-                        if (enchantment != null) {
-                            int level = enchants.getInt(enchantKey);
-                            item.addEnchantment(enchantment, level);
-                        } else {
-                            plugin.getLogger().warning("Unknown enchantment: " + enchantKey + " for item " + identifier);
-                        }
-                    } catch (Exception e) {
-                        plugin.getLogger().log(Level.WARNING, "Error adding enchantment: " + enchantKey, e);
-                    }
-                }
-            }
-        }
-        
-        // Parse item flags
-        if (section.contains("item-flags")) {
-            List<String> flagList = section.getStringList("item-flags");
-            for (String flagName : flagList) {
-                try {
-                    ItemFlag flag = ItemFlag.valueOf(flagName.toUpperCase());
-                    item.addItemFlag(flag);
-                } catch (IllegalArgumentException e) {
-                    plugin.getLogger().warning("Unknown item flag: " + flagName + " for item " + identifier);
-                }
-            }
-        }
-        
-        // Parse per-item click action properties
-        if (section.contains("cooldown")) {
-            item.setCooldown(section.getInt("cooldown"));
-        }
-        
-        if (section.contains("cancel_right_click")) {
-            item.setCancelRightClick(section.getBoolean("cancel_right_click"));
-        }
-        
-        if (section.contains("cancel_left_click")) {
-            item.setCancelLeftClick(section.getBoolean("cancel_left_click"));
-        }
-        
-        // Check for right-click and left-click commands
-        if (section.contains("right-click-command")) {
-            item.setRightClickCommand(section.getString("right-click-command"));
-        }
-        
-        if (section.contains("left-click-command")) {
-            item.setLeftClickCommand(section.getString("left-click-command"));
-        }
-        
-        return item;
-    }
-    
     /**
      * Save the default customs.yml file if it doesn't exist
      */
@@ -248,35 +132,6 @@ public class CustomItemManager {
         }
     }
     
-    /**
-     * Translates hex color codes in the format &#RRGGBB to the Bukkit color format
-     * @param message Message containing hex color codes
-     * @return Translated message with proper hex color codes
-     */
-    private String translateHexColorCodes(String message) {
-        if (message == null || message.isEmpty()) {
-            return message;
-        }
-        
-        // Translate hex color codes (&#RRGGBB)
-        final Pattern hexPattern = Pattern.compile("&#([A-Fa-f0-9]{6})");
-        Matcher matcher = hexPattern.matcher(message);
-        StringBuffer buffer = new StringBuffer();
-        
-        while (matcher.find()) {
-            String hexCode = matcher.group(1);
-            // Convert to the format Bukkit uses for hex colors: §x§R§G§B§B§B§B
-            StringBuilder replacement = new StringBuilder("§x");
-            for (char c : hexCode.toCharArray()) {
-                replacement.append("§").append(c);
-            }
-            matcher.appendReplacement(buffer, replacement.toString());
-        }
-        
-        matcher.appendTail(buffer);
-        return buffer.toString();
-    }
-    
     /**
      * Get a custom item by its identifier
      * @param identifier Item identifier
@@ -1,5 +1,7 @@
 package com.yrhv.coreitems.give.model;
 
+import java.util.Objects;
+
 /**
  * Represents properties for a command on a custom item
  */
@@ -73,4 +75,18 @@ public class CommandProperties {
     public void setShowItemCooldown(boolean showItemCooldown) {
         this.showItemCooldown = showItemCooldown;
     }
+    
+    /**
+     * Checks if another command is configured exactly like this one
+     * @param other The other command properties, may be null
+     * @return true if all properties are equal
+     */
+    public boolean hasSameDefinition(CommandProperties other) {
+        return other != null
+                && Objects.equals(command, other.command)
+                && cooldown == other.cooldown
+                && Objects.equals(cooldownMessage, other.cooldownMessage)
+                && cooldownMessageInterval == other.cooldownMessageInterval
+                && showItemCooldown == other.showItemCooldown;
+    }
 }
@@ -14,6 +14,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 
 /**
  * Represents a custom item with configurable properties
@@ -373,4 +374,40 @@ public class CustomItem {
     public void setDropMessage(String dropMessage) {
         this.dropMessage = dropMessage;
     }
+    
+    /**
+     * Checks if another item is configured exactly like this one, ignoring the identifier.
+     * Used on reload to keep the existing instance of items that did not change.
+     * @param other The other item, may be null
+     * @return true if every configured property is equal
+     */
+    public boolean hasSameDefinition(CustomItem other) {
+        if (other == null) return false;
+        if (other == this) return true;
+        
+        return material == other.material
+                && Objects.equals(displayName, other.displayName)
+                && Objects.equals(lore, other.lore)
+                && customModelData == other.customModelData
+                && unbreakable == other.unbreakable
+                && hideAttributes == other.hideAttributes
+                && glowing == other.glowing
+                && enchanted == other.enchanted
+                && Objects.equals(enchantments, other.enchantments)
+                && Objects.equals(itemFlags, other.itemFlags)
+                && sameCommand(rightClickProperties, other.rightClickProperties)
+                && sameCommand(leftClickProperties, other.leftClickProperties)
+                && cooldown == other.cooldown
+                && Objects.equals(cooldownMessage, other.cooldownMessage)
+                && cooldownMessageInterval == other.cooldownMessageInterval
+                && showItemCooldown == other.showItemCooldown
+                && droppable == other.droppable
+                && Objects.equals(dropMessage, other.dropMessage)
+                && cancelRightClick == other.cancelRightClick
+                && cancelLeftClick == other.cancelLeftClick;
+    }
+    
+    private static boolean sameCommand(CommandProperties a, CommandProperties b) {
+        return a == null ? b == null : a.hasSameDefinition(b);
+    }
 }
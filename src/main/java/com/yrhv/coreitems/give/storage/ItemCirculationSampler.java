@@ -0,0 +1,246 @@
+package com.yrhv.coreitems.give.storage;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Records how many of each custom item exist across all tracked players over time.
+ * Totals are summed from the existing tracking data (no inventories are scanned) and kept in
+ * fixed-size ring buffers: one shared ring of sample timestamps plus one ring of totals per item.
+ * The rings are persisted to a small binary file so history survives restarts.
+ */
+public class ItemCirculationSampler {
+    
+    private static final int FILE_MAGIC = 0x43495243; // "CIRC"
+    private static final int FILE_VERSION = 1;
+    
+    /**
+     * A single sampled total
+     */
+    public static final class Sample {
+        private final long timestamp;
+        private final long total;
+        
+        private Sample(long timestamp, long total) {
+            this.timestamp = timestamp;
+            this.total = total;
+        }
+        
+        public long getTimestamp() {
+            return timestamp;
+        }
+        
+        public long getTotal() {
+            return total;
+        }
+    }
+    
+    private final File file;
+    private final int capacity;
+    
+    // Ring state: timestamps[head] is the next slot to write, count is the number of filled slots
+    private final long[] timestamps;
+    private int head;
+    private int count;
+    
+    // Dictionary ID -> ring of totals, null until the item has been seen at least once
+    private int[][] series = new int[0][];
+    
+    /**
+     * Creates a sampler
+     * 
+     * @param file The file the history is persisted to
+     * @param capacity The number of samples kept per item
+     */
+    public ItemCirculationSampler(File file, int capacity) {
+        this.file = file;
+        this.capacity = Math.max(1, capacity);
+        this.timestamps = new long[this.capacity];
+    }
+    
+    /**
+     * Records one sample from the current tracking data
+     * 
+     * @param trackedCounts The tracked item counts of every player
+     * @param dictionarySize The number of assigned dictionary IDs
+     * @param timestamp The sample time in epoch milliseconds
+     */
+    public void sample(Collection<ItemCounts> trackedCounts, int dictionarySize, long timestamp) {
+        // Sum outside the lock, the tracking data is immutable per player
+        long[] totals = new long[dictionarySize];
+        for (ItemCounts itemCounts : trackedCounts) {
+            itemCounts.forEach((id, amount) -> {
+                if (id < totals.length) {
+                    totals[id] += amount;
+                }
+            });
+        }
+        
+        synchronized (this) {
+            int slot = head;
+            timestamps[slot] = timestamp;
+            
+            if (totals.length > series.length) {
+                series = Arrays.copyOf(series, totals.length);
+            }
+            for (int id = 0; id < series.length; id++) {
+                long total = id < totals.length ? totals[id] : 0;
+                if (series[id] == null) {
+                    if (total == 0) continue;
+                    series[id] = new int[capacity];
+                }
+                series[id][slot] = (int) Math.min(total, Integer.MAX_VALUE);
+            }
+            
+            head = (head + 1) % capacity;
+            count = Math.min(count + 1, capacity);
+        }
+    }
+    
+    /**
+     * Gets the recorded totals of an item within a time range, oldest first
+     * 
+     * @param itemId The dictionary ID of the item
+     * @param from Start of the range (inclusive, epoch milliseconds)
+     * @param to End of the range (inclusive, epoch milliseconds)
+     * @return The samples in the range
+     */
+    public synchronized List<Sample> query(int itemId, long from, long to) {
+        List<Sample> samples = new ArrayList<>();
+        int[] values = itemId >= 0 && itemId < series.length ? series[itemId] : null;
+        
+        int oldest = (head - count + capacity) % capacity;
+        for (int i = 0; i < count; i++) {
+            int slot = (oldest + i) % capacity;
+            long timestamp = timestamps[slot];
+            if (timestamp < from || timestamp > to) continue;
+            
+            samples.add(new Sample(timestamp, values != null ? values[slot] : 0));
+        }
+        return samples;
+    }
+    
+    /**
+     * Gets the number of samples kept per item
+     * 
+     * @return The ring buffer capacity
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+    
+    /**
+     * Gets the number of samples currently held
+     * 
+     * @return The sample count
+     */
+    public synchronized int getSampleCount() {
+        return count;
+    }
+    
+    /**
+     * Loads persisted history. Samples beyond the configured capacity are dropped, oldest first.
+     * 
+     * @throws IOException If the file exists but could not be read
+     */
+    public synchronized void load() throws IOException {
+        head = 0;
+        count = 0;
+        series = new int[0][];
+        
+        if (!file.exists()) return;
+        
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file.toPath())))) {
+            if (in.readInt() != FILE_MAGIC || in.readInt() != FILE_VERSION) {
+                throw new IOException("Unrecognized circulation history format in " + file.getName());
+            }
+            
+            int storedCount = in.readInt();
+            int skip = Math.max(0, storedCount - capacity);
+            
+            long[] storedTimestamps = new long[storedCount];
+            for (int i = 0; i < storedCount; i++) {
+                storedTimestamps[i] = in.readLong();
+            }
+            for (int i = skip; i < storedCount; i++) {
+                timestamps[i - skip] = storedTimestamps[i];
+            }
+            count = storedCount - skip;
+            head = count % capacity;
+            
+            int seriesCount = in.readInt();
+            for (int s = 0; s < seriesCount; s++) {
+                int id = in.readInt();
+                int[] values = new int[capacity];
+                for (int i = 0; i < storedCount; i++) {
+                    int value = in.readInt();
+                    if (i >= skip) {
+                        values[i - skip] = value;
+                    }
+                }
+                
+                if (id >= series.length) {
+                    series = Arrays.copyOf(series, id + 1);
+                }
+                series[id] = values;
+            }
+        }
+    }
+    
+    /**
+     * Writes the history to disk, oldest sample first, replacing the old file atomically
+     * 
+     * @throws IOException If the file could not be written
+     */
+    public void save() throws IOException {
+        Path target = file.toPath();
+        Path tempFile = target.resolveSibling(target.getFileName() + ".tmp");
+        
+        synchronized (this) {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+                out.writeInt(FILE_MAGIC);
+                out.writeInt(FILE_VERSION);
+                out.writeInt(count);
+                
+                int oldest = (head - count + capacity) % capacity;
+                for (int i = 0; i < count; i++) {
+                    out.writeLong(timestamps[(oldest + i) % capacity]);
+                }
+                
+                int seriesCount = 0;
+                for (int[] values : series) {
+                    if (values != null) seriesCount++;
+                }
+                out.writeInt(seriesCount);
+                
+                for (int id = 0; id < series.length; id++) {
+                    int[] values = series[id];
+                    if (values == null) continue;
+                    
+                    out.writeInt(id);
+                    for (int i = 0; i < count; i++) {
+                        out.writeInt(values[(oldest + i) % capacity]);
+                    }
+                }
+            }
+        }
+        
+        try {
+            Files.move(tempFile, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tempFile, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
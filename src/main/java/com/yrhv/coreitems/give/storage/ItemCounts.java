@@ -0,0 +1,181 @@
+package com.yrhv.coreitems.give.storage;
+
+import java.util.Arrays;
+
+/**
+ * Immutable per-player item counts keyed by dictionary IDs (see {@link ItemIdDictionary}).
+ * Small holdings are stored as parallel sorted arrays of 16-bit IDs and counts; holdings that
+ * cover a large part of the catalog switch to a dense array indexed by ID, whichever is smaller.
+ */
+public final class ItemCounts {
+    
+    /**
+     * Callback for iterating over the non-zero counts
+     */
+    @FunctionalInterface
+    public interface Visitor {
+        void accept(int itemId, int count);
+    }
+    
+    public static final ItemCounts EMPTY = new ItemCounts(new short[0], new int[0], null, 0);
+    
+    // Sparse form: sorted unsigned 16-bit IDs and their counts
+    private final short[] sparseIds;
+    private final int[] sparseCounts;
+    
+    // Dense form: count per ID, null when the sparse form is used
+    private final int[] dense;
+    private final int distinct;
+    
+    private ItemCounts(short[] sparseIds, int[] sparseCounts, int[] dense, int distinct) {
+        this.sparseIds = sparseIds;
+        this.sparseCounts = sparseCounts;
+        this.dense = dense;
+        this.distinct = distinct;
+    }
+    
+    /**
+     * Gets the count for an item
+     * 
+     * @param itemId The dictionary ID
+     * @return The count, or 0 if none
+     */
+    public int get(int itemId) {
+        if (itemId < 0) return 0;
+        
+        if (dense != null) {
+            return itemId < dense.length ? dense[itemId] : 0;
+        }
+        
+        if (itemId > 0xFFFF) return 0;
+        int low = 0;
+        int high = sparseIds.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int midId = sparseIds[mid] & 0xFFFF;
+            if (midId < itemId) {
+                low = mid + 1;
+            } else if (midId > itemId) {
+                high = mid - 1;
+            } else {
+                return sparseCounts[mid];
+            }
+        }
+        return 0;
+    }
+    
+    /**
+     * Calls the visitor for every item with a non-zero count, in ID order
+     * 
+     * @param visitor The visitor
+     */
+    public void forEach(Visitor visitor) {
+        if (dense != null) {
+            for (int id = 0; id < dense.length; id++) {
+                if (dense[id] > 0) {
+                    visitor.accept(id, dense[id]);
+                }
+            }
+            return;
+        }
+        
+        for (int i = 0; i < sparseIds.length; i++) {
+            visitor.accept(sparseIds[i] & 0xFFFF, sparseCounts[i]);
+        }
+    }
+    
+    /**
+     * Gets the number of distinct items held
+     * 
+     * @return The number of items with a non-zero count
+     */
+    public int size() {
+        return distinct;
+    }
+    
+    /**
+     * Checks if no items are held
+     * 
+     * @return True if every count is zero
+     */
+    public boolean isEmpty() {
+        return distinct == 0;
+    }
+    
+    /**
+     * Mutable accumulator used while scanning or loading, turned into an {@link ItemCounts} when done
+     */
+    public static final class Builder {
+        private int[] ids = new int[8];
+        private int[] counts = new int[8];
+        private int length;
+        
+        /**
+         * Adds an amount to an item's count
+         * 
+         * @param itemId The dictionary ID
+         * @param amount The amount to add
+         * @return This builder
+         */
+        public Builder add(int itemId, int amount) {
+            if (itemId < 0 || amount <= 0) return this;
+            
+            // Inventories hold few distinct custom items, a linear probe beats hashing here
+            for (int i = 0; i < length; i++) {
+                if (ids[i] == itemId) {
+                    counts[i] += amount;
+                    return this;
+                }
+            }
+            
+            if (length == ids.length) {
+                ids = Arrays.copyOf(ids, length * 2);
+                counts = Arrays.copyOf(counts, length * 2);
+            }
+            ids[length] = itemId;
+            counts[length] = amount;
+            length++;
+            return this;
+        }
+        
+        /**
+         * Builds the immutable counts in whichever form takes less memory
+         * 
+         * @return The item counts
+         */
+        public ItemCounts build() {
+            if (length == 0) {
+                return EMPTY;
+            }
+            
+            int maxId = 0;
+            for (int i = 0; i < length; i++) {
+                maxId = Math.max(maxId, ids[i]);
+            }
+            
+            // Sparse costs 6 bytes per entry, dense 4 bytes per ID up to the highest one
+            if (maxId > 0xFFFF || (long) (maxId + 1) * 4 <= (long) length * 6) {
+                int[] dense = new int[maxId + 1];
+                for (int i = 0; i < length; i++) {
+                    dense[ids[i]] = counts[i];
+                }
+                return new ItemCounts(null, null, dense, length);
+            }
+            
+            // Sort the entries by ID so lookups can binary search
+            long[] packed = new long[length];
+            for (int i = 0; i < length; i++) {
+                packed[i] = ((long) ids[i] << 32) | (counts[i] & 0xFFFFFFFFL);
+            }
+            Arrays.sort(packed);
+            
+            short[] sparseIds = new short[length];
+            int[] sparseCounts = new int[length];
+            for (int i = 0; i < length; i++) {
+                sparseIds[i] = (short) (packed[i] >>> 32);
+                sparseCounts[i] = (int) packed[i];
+            }
+            return new ItemCounts(sparseIds, sparseCounts, null, length);
+        }
+    }
+}
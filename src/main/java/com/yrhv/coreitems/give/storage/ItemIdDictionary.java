@@ -0,0 +1,181 @@
+package com.yrhv.coreitems.give.storage;
+
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps custom item IDs to dense integer IDs.
+ * IDs are only ever appended, never reused or reordered, and the mapping is persisted
+ * next to the player data so an integer keeps meaning the same item across reloads,
+ * restarts and catalog edits.
+ */
+public class ItemIdDictionary {
+    
+    private final File file;
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    
+    // Index -> item ID; slots below size are never changed once written, so readers need no lock
+    private volatile String[] names = new String[16];
+    private volatile int size;
+    private boolean dirty;
+    
+    /**
+     * Creates a dictionary backed by the given file
+     * 
+     * @param file The file the mapping is persisted to
+     */
+    public ItemIdDictionary(File file) {
+        this.file = file;
+    }
+    
+    /**
+     * Loads the persisted mapping, replacing anything currently held
+     */
+    public synchronized void load() {
+        ids.clear();
+        names = new String[16];
+        size = 0;
+        dirty = false;
+        
+        if (!file.exists()) {
+            return;
+        }
+        
+        List<String> stored = YamlConfiguration.loadConfiguration(file).getStringList("ids");
+        for (String itemId : stored) {
+            // Keep positions intact even for damaged entries, so later IDs don't shift
+            append(itemId == null ? "" : itemId);
+        }
+        dirty = false;
+    }
+    
+    /**
+     * Gets the integer ID for an item, assigning the next free one if it has none yet
+     * 
+     * @param itemId The item ID
+     * @return The integer ID
+     */
+    public int getOrAssign(String itemId) {
+        Integer id = ids.get(itemId);
+        if (id != null) {
+            return id;
+        }
+        
+        synchronized (this) {
+            id = ids.get(itemId);
+            return id != null ? id : append(itemId);
+        }
+    }
+    
+    /**
+     * Assigns integer IDs to all given items that don't have one yet
+     * 
+     * @param itemIds The item IDs
+     */
+    public synchronized void registerAll(Collection<String> itemIds) {
+        for (String itemId : itemIds) {
+            if (!ids.containsKey(itemId)) {
+                append(itemId);
+            }
+        }
+    }
+    
+    /**
+     * Gets the integer ID for an item without assigning one
+     * 
+     * @param itemId The item ID
+     * @return The integer ID, or -1 if the item is unknown
+     */
+    public int idOf(String itemId) {
+        Integer id = ids.get(itemId);
+        return id != null ? id : -1;
+    }
+    
+    /**
+     * Gets the item ID for an integer ID
+     * 
+     * @param id The integer ID
+     * @return The item ID, or null if the ID is not assigned
+     */
+    public String nameOf(int id) {
+        int currentSize = size;
+        return id >= 0 && id < currentSize ? names[id] : null;
+    }
+    
+    /**
+     * Gets the number of assigned IDs
+     * 
+     * @return The dictionary size
+     */
+    public int size() {
+        return size;
+    }
+    
+    /**
+     * Writes the mapping to disk if IDs were assigned since the last save
+     * 
+     * @throws IOException If the file could not be written
+     */
+    public void saveIfDirty() throws IOException {
+        String[] snapshot;
+        synchronized (this) {
+            if (!dirty) return;
+            snapshot = Arrays.copyOf(names, size);
+            dirty = false;
+        }
+        
+        Path target = file.toPath();
+        Path tempFile = target.resolveSibling(target.getFileName() + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(tempFile, StandardCharsets.UTF_8)) {
+            writer.write("# CoreItems - item id dictionary used by the player data files\n");
+            writer.write("# Entries are only ever appended, do not reorder or remove them\n");
+            writer.write("ids:\n");
+            for (String name : snapshot) {
+                writer.write("- '");
+                writer.write(name.replace("'", "''"));
+                writer.write("'\n");
+            }
+        } catch (IOException e) {
+            markDirty();
+            throw e;
+        }
+        
+        try {
+            Files.move(tempFile, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tempFile, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+    
+    private synchronized void markDirty() {
+        dirty = true;
+    }
+    
+    /**
+     * Appends a new ID, caller must hold the lock
+     */
+    private int append(String itemId) {
+        int id = size;
+        if (id == names.length) {
+            names = Arrays.copyOf(names, id * 2);
+        }
+        names[id] = itemId;
+        size = id + 1; // Publishes the new slot to lock-free readers
+        ids.putIfAbsent(itemId, id);
+        dirty = true;
+        return id;
+    }
+}
@@ -3,10 +3,14 @@ package com.yrhv.coreitems.give.storage;
 import com.yrhv.coreitems.CoreItems;
 import com.yrhv.coreitems.give.model.CustomItem;
 import com.yrhv.coreitems.namespace.manager.NamespaceManager;
+import com.yrhv.coreitems.namespace.model.ItemEntry;
 import com.yrhv.coreitems.namespace.model.ItemNamespace;
+import com.yrhv.coreitems.namespace.model.ItemRegistry;
+import com.yrhv.coreitems.namespace.model.RegistryDiff;
+import com.yrhv.coreitems.namespace.util.StreamingItemReader;
 import org.bukkit.Bukkit;
 import org.bukkit.Material;
-import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.InvalidConfigurationException;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.entity.Player;
@@ -17,9 +21,25 @@ import org.bukkit.scheduler.BukkitTask;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 
 /**
@@ -29,29 +49,73 @@ public class PlayerDataManager {
     private final CoreItems plugin;
     private final NamespaceManager namespaceManager;
     private final File playerDataFile;
-    private FileConfiguration playerDataConfig;
+    private final PlayerDataWriter playerDataWriter;
+    private final ItemIdDictionary itemIdDictionary;
     private BukkitTask autoScanTask;
+    private BukkitTask circulationTask;
+    private volatile ItemCirculationSampler circulationSampler;
     
-    // Runtime player item inventory data: UUID -> ItemId -> Count
-    private final Map<UUID, Map<String, Integer>> playerItemInventory = new ConcurrentHashMap<>();
+    // Runtime player item inventory data: UUID -> counts keyed by dictionary ID
+    private final Map<UUID, ItemCounts> playerItemInventory = new ConcurrentHashMap<>();
+    
+    // Players still waiting to be scanned in the current auto-scan cycle (main thread only)
+    private final ArrayDeque<UUID> scanQueue = new ArrayDeque<>();
+    private long nextCycleStart;
+    private boolean cycleInProgress;
+    
+    // Background save state: at most one save runs at a time, later requests are coalesced
+    private final AtomicBoolean saveRunning = new AtomicBoolean(false);
+    private final AtomicBoolean saveRequested = new AtomicBoolean(false);
+    
+    // Async scan state: every scan gets a sequence number so an older result never replaces a newer one
+    private ExecutorService scanExecutor;
+    private final AtomicLong scanSequence = new AtomicLong();
+    private final Map<UUID, Long> publishedScans = new ConcurrentHashMap<>();
+    private final AtomicInteger pendingScans = new AtomicInteger();
+    private final AtomicBoolean saveWhenScansDrain = new AtomicBoolean(false);
+    
+    // Players who left; their sequence numbers are dropped once no async scan is pending
+    private final Set<UUID> departedPlayers = ConcurrentHashMap.newKeySet();
+    
+    // Players whose inventory changed outside the auto-scan, scanned together after a short delay (main thread only)
+    private static final long DIRTY_FLUSH_DELAY_TICKS = 20L;
+    private final Set<UUID> dirtyPlayers = new LinkedHashSet<>();
+    private BukkitTask dirtyFlushTask;
     
     // Config values
     private boolean enabled;
+    private boolean asyncScan;
+    private int scanThreads;
     private boolean autoScanEnabled;
     private long autoScanInterval;
+    private int playersPerTick;
+    private long maxNanosPerTick;
+    private boolean circulationEnabled;
+    private long circulationInterval;
+    private int circulationCapacity;
     
     public PlayerDataManager(CoreItems plugin, NamespaceManager namespaceManager) {
         this.plugin = plugin;
         this.namespaceManager = namespaceManager;
         this.playerDataFile = new File(plugin.getDataFolder(), "player_items.yml");
+        this.playerDataWriter = new PlayerDataWriter(playerDataFile.toPath());
+        this.itemIdDictionary = new ItemIdDictionary(new File(plugin.getDataFolder(), "item_ids.yml"));
         loadConfig();
+        namespaceManager.addRegistryListener(this::onCatalogChanged);
         
         if (enabled) {
+            itemIdDictionary.load();
+            registerCatalogIds();
             loadPlayerData();
+            updateScanExecutor();
             
             if (autoScanEnabled) {
                 startAutoScanTask();
             }
+            
+            if (circulationEnabled) {
+                startCirculationTask();
+            }
         }
     }
     
@@ -63,6 +127,57 @@ public class PlayerDataManager {
         enabled = config.getBoolean("player-data.enabled", true);
         autoScanEnabled = config.getBoolean("player-data.auto_scan.enabled", true);
         autoScanInterval = config.getLong("player-data.auto_scan.interval", 300000); // Default 5 minutes
+        playersPerTick = Math.max(1, config.getInt("player-data.auto_scan.players-per-tick", 5));
+        maxNanosPerTick = Math.max(0L, config.getLong("player-data.auto_scan.max-millis-per-tick", 2)) * 1_000_000L;
+        asyncScan = config.getString("player-data.scan-mode", "sync").equalsIgnoreCase("async");
+        scanThreads = Math.max(1, config.getInt("player-data.scan-threads", 2));
+        circulationEnabled = config.getBoolean("player-data.circulation.enabled", true);
+        circulationInterval = Math.max(1000L, config.getLong("player-data.circulation.interval", 600000)); // Default 10 minutes
+        circulationCapacity = Math.max(1, config.getInt("player-data.circulation.samples", 1008)); // Default one week
+    }
+    
+    /**
+     * Starts or stops the scan worker pool to match the configured scan mode
+     */
+    private void updateScanExecutor() {
+        if (enabled && asyncScan) {
+            if (scanExecutor == null) {
+                AtomicInteger threadNumber = new AtomicInteger();
+                ThreadFactory threadFactory = runnable -> {
+                    Thread thread = new Thread(runnable, "CoreItems-Scan-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                };
+                scanExecutor = Executors.newFixedThreadPool(scanThreads, threadFactory);
+                plugin.getLogger().info("Using async inventory scanning with " + scanThreads + " worker threads");
+            }
+        } else {
+            stopScanExecutor(false);
+        }
+    }
+    
+    /**
+     * Stops the scan worker pool. Running scans are left to finish on their own, since their
+     * results are dropped once a newer scan is published.
+     * 
+     * @param waitForScans Whether to wait briefly for running scans, only done on disable
+     */
+    private void stopScanExecutor(boolean waitForScans) {
+        if (scanExecutor == null) return;
+        
+        ExecutorService executor = scanExecutor;
+        scanExecutor = null;
+        executor.shutdown();
+        if (!waitForScans) return;
+        
+        try {
+            if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
     }
     
     /**
@@ -74,88 +189,205 @@ public class PlayerDataManager {
             plugin.saveResource("player_items.yml", false);
         }
         
-        playerDataConfig = YamlConfiguration.loadConfiguration(playerDataFile);
-        
         // Clear existing data
         playerItemInventory.clear();
         
-        // Load all player data
-        for (String uuidString : playerDataConfig.getKeys(false)) {
-            try {
-                UUID uuid = UUID.fromString(uuidString);
-                ConfigurationSection playerSection = playerDataConfig.getConfigurationSection(uuidString);
+        // Read with flat keys, the way PlayerDataWriter writes them: YamlConfiguration would
+        // split item IDs containing dots into nested sections
+        try (Reader reader = StreamingItemReader.open(playerDataFile.toPath())) {
+            StreamingItemReader.read(reader, (uuidString, items, line) -> {
+                UUID uuid;
+                try {
+                    uuid = UUID.fromString(uuidString);
+                } catch (IllegalArgumentException e) {
+                    plugin.getLogger().warning("Invalid UUID in player_items.yml: " + uuidString);
+                    return;
+                }
                 
-                if (playerSection != null) {
-                    Map<String, Integer> itemCounts = new ConcurrentHashMap<>();
-                    
-                    for (String itemId : playerSection.getKeys(false)) {
-                        int amount = playerSection.getInt(itemId);
-                        if (amount > 0) {
-                            itemCounts.put(itemId, amount);
-                        }
-                    }
-                    
-                    if (!itemCounts.isEmpty()) {
-                        playerItemInventory.put(uuid, itemCounts);
-                    }
+                ItemCounts.Builder builder = new ItemCounts.Builder();
+                addCounts(builder, "", items);
+                ItemCounts itemCounts = builder.build();
+                if (!itemCounts.isEmpty()) {
+                    playerItemInventory.put(uuid, itemCounts);
                 }
-            } catch (IllegalArgumentException e) {
-                plugin.getLogger().warning("Invalid UUID in player_items.yml: " + uuidString);
-            }
+            });
+        } catch (IOException | InvalidConfigurationException e) {
+            plugin.getLogger().log(Level.SEVERE, "Could not load " + playerDataFile, e);
         }
         
         plugin.getLogger().info("Loaded item inventory data for " + playerItemInventory.size() + " players");
     }
     
     /**
-     * Saves current player inventory data to the player_items.yml file
+     * Adds the counts of one player. Nested sections come from files saved before counts were
+     * written with flat keys, their keys are joined with dots back into the item ID.
      */
-    public void savePlayerData() {
-        if (!enabled) return;
-        
-        playerDataConfig = new YamlConfiguration();
-        
-        // Save all player data
-        for (Map.Entry<UUID, Map<String, Integer>> entry : playerItemInventory.entrySet()) {
-            UUID uuid = entry.getKey();
-            Map<String, Integer> itemCounts = entry.getValue();
-            
-            for (Map.Entry<String, Integer> itemEntry : itemCounts.entrySet()) {
-                String itemId = itemEntry.getKey();
-                int amount = itemEntry.getValue();
-                
-                if (amount > 0) {
-                    String path = uuid.toString() + "." + itemId;
-                    playerDataConfig.set(path, amount);
-                }
+    private void addCounts(ItemCounts.Builder builder, String prefix, Map<?, ?> items) {
+        for (Map.Entry<?, ?> entry : items.entrySet()) {
+            String itemId = prefix + entry.getKey();
+            if (entry.getValue() instanceof Map<?, ?> nested) {
+                addCounts(builder, itemId + ".", nested);
+            } else if (entry.getValue() instanceof Number amount && amount.intValue() > 0) {
+                builder.add(itemIdDictionary.getOrAssign(itemId), amount.intValue());
             }
         }
+    }
+    
+    /**
+     * Assigns dictionary IDs to every item in the loaded catalog, so IDs are handed out
+     * in catalog order rather than in the order items happen to be scanned
+     */
+    private void registerCatalogIds() {
+        List<String> itemIds = new ArrayList<>();
+        for (ItemNamespace namespace : namespaceManager.getNamespaces().values()) {
+            for (ItemEntry entry : namespace.getEntries()) {
+                itemIds.add(entry.getId());
+            }
+        }
+        itemIdDictionary.registerAll(itemIds);
+    }
+    
+    /**
+     * Saves current player inventory data to the player_items.yml file.
+     * Entries are streamed from the runtime map into a temp file that replaces the old one,
+     * so a crash mid-save never leaves a truncated file behind.
+     * Only runs on the background save thread and in {@link #shutdown()}; everything else goes
+     * through {@link #savePlayerDataAsync()}, so the main thread never waits for a running save.
+     * Synchronized so the final save on shutdown waits for a background save still in progress.
+     */
+    private synchronized void savePlayerData() {
+        if (!enabled) return;
         
         try {
-            playerDataConfig.save(playerDataFile);
-            plugin.getLogger().info("Saved item inventory data for " + playerItemInventory.size() + " players");
+            // Persist the dictionary first so the IDs behind the counts are always on disk
+            itemIdDictionary.saveIfDirty();
+            int players = playerDataWriter.write(playerItemInventory, itemIdDictionary);
+            plugin.getLogger().info("Saved item inventory data for " + players + " players");
         } catch (IOException e) {
             plugin.getLogger().log(Level.SEVERE, "Could not save player data to " + playerDataFile, e);
         }
     }
     
     /**
-     * Start the automatic scan task to update player inventory data
+     * Saves player data on a background thread.
+     * If a save is already running, another one is queued to run right after it,
+     * so bursts of requests collapse into at most one extra save.
+     */
+    public void savePlayerDataAsync() {
+        if (!enabled) return;
+        
+        saveRequested.set(true);
+        if (!saveRunning.compareAndSet(false, true)) {
+            return; // The running save will pick up the request when it finishes
+        }
+        
+        plugin.getServer().getScheduler().runTaskAsynchronously(plugin, this::drainSaveRequests);
+    }
+    
+    /**
+     * Runs queued saves until no further request arrives while saving
+     */
+    private void drainSaveRequests() {
+        try {
+            while (saveRequested.getAndSet(false)) {
+                savePlayerData();
+            }
+        } finally {
+            saveRunning.set(false);
+        }
+        
+        // A request may have slipped in between the last check and releasing the flag
+        if (saveRequested.get() && saveRunning.compareAndSet(false, true)) {
+            drainSaveRequests();
+        }
+    }
+    
+    /**
+     * Start the automatic scan task to update player inventory data.
+     * The task runs every tick but only scans a few players at a time, so a full pass
+     * over the online population is spread out instead of landing in a single tick.
      */
     private void startAutoScanTask() {
         if (autoScanTask != null) {
             autoScanTask.cancel();
         }
         
+        scanQueue.clear();
+        cycleInProgress = false;
+        nextCycleStart = System.currentTimeMillis() + autoScanInterval;
+        runScanTask();
+        
+        plugin.getLogger().info("Started auto-scan task for player inventory data (interval: " + autoScanInterval + "ms, "
+                + playersPerTick + " players or " + (maxNanosPerTick / 1_000_000L) + "ms per tick)");
+    }
+    
+    private void runScanTask() {
         autoScanTask = new BukkitRunnable() {
             @Override
             public void run() {
-                scanAllOnlinePlayers();
-                savePlayerData();
+                tickAutoScan();
+            }
+        }.runTaskTimer(plugin, 1L, 1L);
+    }
+    
+    /**
+     * Starts a scan cycle over all online players on the next tick, spread over ticks like
+     * any other cycle and saved in the background when it is done.
+     * Works without auto-scan too, the task then stops again after this one cycle.
+     */
+    private void requestScanCycle() {
+        if (autoScanTask == null) {
+            runScanTask();
+        }
+        if (!cycleInProgress) {
+            nextCycleStart = 0L;
+        }
+    }
+    
+    /**
+     * Processes one tick of the round-robin auto-scan
+     */
+    private void tickAutoScan() {
+        if (!cycleInProgress) {
+            if (System.currentTimeMillis() < nextCycleStart) {
+                return;
             }
-        }.runTaskTimer(plugin, autoScanInterval / 50, autoScanInterval / 50); // Convert ms to ticks
+            
+            // Start a new cycle with a snapshot of everyone currently online
+            nextCycleStart = System.currentTimeMillis() + autoScanInterval;
+            for (Player player : Bukkit.getOnlinePlayers()) {
+                scanQueue.add(player.getUniqueId());
+            }
+            cycleInProgress = true;
+        }
+        
+        long deadline = System.nanoTime() + maxNanosPerTick;
+        int scanned = 0;
         
-        plugin.getLogger().info("Started auto-scan task for player inventory data (interval: " + autoScanInterval + "ms)");
+        while (!scanQueue.isEmpty() && scanned < playersPerTick) {
+            // Always scan at least one player per tick so the cycle makes progress
+            if (scanned > 0 && maxNanosPerTick > 0 && System.nanoTime() >= deadline) {
+                break;
+            }
+            
+            Player player = Bukkit.getPlayer(scanQueue.poll());
+            if (player == null || !player.isOnline()) {
+                continue; // Player left since the cycle started
+            }
+            
+            scanPlayerInventory(player);
+            scanned++;
+        }
+        
+        if (scanQueue.isEmpty()) {
+            // Full population covered, persist off the main thread once async scans have published
+            cycleInProgress = false;
+            saveAfterPendingScans();
+            
+            if (!autoScanEnabled) {
+                stopAutoScanTask(); // Only running for a requested cycle
+            }
+        }
     }
     
     /**
@@ -166,35 +398,206 @@ public class PlayerDataManager {
             autoScanTask.cancel();
             autoScanTask = null;
         }
+        scanQueue.clear();
+        cycleInProgress = false;
     }
     
     /**
-     * Scan a player's inventory for custom items and update the item counts
+     * Start sampling global item totals for the circulation history
+     */
+    private void startCirculationTask() {
+        stopCirculationTask();
+        
+        // Recreate the sampler when its size changed, the file keeps the most recent samples
+        if (circulationSampler == null || circulationSampler.getCapacity() != circulationCapacity) {
+            circulationSampler = new ItemCirculationSampler(new File(plugin.getDataFolder(), "circulation.dat"), circulationCapacity);
+            try {
+                circulationSampler.load();
+            } catch (IOException e) {
+                plugin.getLogger().log(Level.WARNING, "Could not load item circulation history, starting a new one", e);
+            }
+        }
+        
+        long ticks = Math.max(1L, circulationInterval / 50); // Convert ms to ticks
+        circulationTask = plugin.getServer().getScheduler().runTaskTimerAsynchronously(plugin, this::sampleCirculation, ticks, ticks);
+    }
+    
+    /**
+     * Stop the circulation sampling task and persist the history
+     */
+    private void stopCirculationTask() {
+        if (circulationTask != null) {
+            circulationTask.cancel();
+            circulationTask = null;
+            saveCirculationHistory();
+        }
+    }
+    
+    /**
+     * Records one circulation sample from the tracking data already held in memory
+     */
+    private void sampleCirculation() {
+        ItemCirculationSampler sampler = circulationSampler;
+        if (sampler == null) return;
+        
+        sampler.sample(playerItemInventory.values(), itemIdDictionary.size(), System.currentTimeMillis());
+        saveCirculationHistory();
+    }
+    
+    private void saveCirculationHistory() {
+        ItemCirculationSampler sampler = circulationSampler;
+        if (sampler == null) return;
+        
+        try {
+            sampler.save();
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.WARNING, "Could not save item circulation history", e);
+        }
+    }
+    
+    /**
+     * Get the recorded global totals of an item within a time range
+     * @param itemId The item ID
+     * @param from Start of the range in epoch milliseconds
+     * @param to End of the range in epoch milliseconds
+     * @return The samples in the range, oldest first, or an empty list if sampling is off
+     */
+    public List<ItemCirculationSampler.Sample> getCirculationHistory(String itemId, long from, long to) {
+        ItemCirculationSampler sampler = circulationSampler;
+        if (sampler == null) return new ArrayList<>();
+        
+        return sampler.query(itemIdDictionary.idOf(itemId), from, to);
+    }
+    
+    /**
+     * Check if circulation sampling is running
+     * @return True if samples are being recorded
+     */
+    public boolean isCirculationEnabled() {
+        return enabled && circulationTask != null;
+    }
+    
+    /**
+     * Scan a player's inventory for custom items and update the item counts.
+     * In async scan mode only the inventory snapshot is taken here; matching runs on a worker.
      * @param player The player to scan
      */
     public void scanPlayerInventory(Player player) {
         if (!enabled || player == null) return;
         
         UUID playerId = player.getUniqueId();
-        Map<String, Integer> itemCounts = new ConcurrentHashMap<>();
+        long sequence = scanSequence.incrementAndGet();
+        
+        ExecutorService executor = scanExecutor;
+        if (executor != null) {
+            ItemStack[] snapshot = snapshotContents(player.getInventory().getContents());
+            pendingScans.incrementAndGet();
+            try {
+                executor.execute(() -> {
+                    try {
+                        publishCounts(playerId, sequence, countCustomItems(snapshot));
+                    } catch (Exception e) {
+                        plugin.getLogger().log(Level.WARNING, "Failed to scan inventory of " + playerId, e);
+                    } finally {
+                        onScanFinished();
+                    }
+                });
+                return;
+            } catch (RejectedExecutionException e) {
+                // Pool is shutting down, fall back to scanning here
+                onScanFinished();
+            }
+        }
         
-        // Scan all items in player's inventory
-        for (ItemStack item : player.getInventory().getContents()) {
+        publishCounts(playerId, sequence, countCustomItems(player.getInventory().getContents()));
+    }
+    
+    /**
+     * Copies inventory contents so they can be read safely off the main thread.
+     * The returned stacks are detached from the live inventory.
+     */
+    private ItemStack[] snapshotContents(ItemStack[] contents) {
+        ItemStack[] snapshot = new ItemStack[contents.length];
+        for (int i = 0; i < contents.length; i++) {
+            ItemStack item = contents[i];
+            if (item != null && item.getType() != Material.AIR) {
+                snapshot[i] = item.clone();
+            }
+        }
+        return snapshot;
+    }
+    
+    /**
+     * Counts the custom items in an inventory or inventory snapshot
+     * @param contents The inventory contents
+     * @return The item counts
+     */
+    private ItemCounts countCustomItems(ItemStack[] contents) {
+        ItemCounts.Builder builder = new ItemCounts.Builder();
+        
+        for (ItemStack item : contents) {
             if (item == null || item.getType() == Material.AIR) continue;
             
             CustomItem customItem = findMatchingCustomItem(item);
             if (customItem != null) {
-                String itemId = customItem.getId();
-                int currentCount = itemCounts.getOrDefault(itemId, 0);
-                itemCounts.put(itemId, currentCount + item.getAmount());
+                builder.add(itemIdDictionary.getOrAssign(customItem.getId()), item.getAmount());
+            }
+        }
+        return builder.build();
+    }
+    
+    /**
+     * Atomically replaces a player's counts unless a newer scan has already been published
+     */
+    private void publishCounts(UUID playerId, long sequence, ItemCounts itemCounts) {
+        playerItemInventory.compute(playerId, (id, current) -> {
+            Long published = publishedScans.get(id);
+            if (published != null && published > sequence) {
+                return current; // Stale result from an older scan
+            }
+            publishedScans.put(id, sequence);
+            return itemCounts.isEmpty() ? null : itemCounts;
+        });
+    }
+    
+    /**
+     * Saves in the background as soon as all async scans started so far have published
+     */
+    private void saveAfterPendingScans() {
+        saveWhenScansDrain.set(true);
+        if (pendingScans.get() == 0 && saveWhenScansDrain.getAndSet(false)) {
+            savePlayerDataAsync();
+        }
+    }
+    
+    /**
+     * Bookkeeping after an async scan, triggers the deferred end-of-cycle save once all scans are in
+     */
+    private void onScanFinished() {
+        if (pendingScans.decrementAndGet() == 0) {
+            forgetDepartedPlayers();
+            if (saveWhenScansDrain.getAndSet(false)) {
+                savePlayerDataAsync();
             }
         }
+    }
+    
+    /**
+     * Called when a player leaves. Their scan bookkeeping is dropped once no async scan is
+     * pending, so a scan still running for them can't publish over newer counts in the meantime.
+     * @param player The player who left
+     */
+    public void onPlayerQuit(Player player) {
+        departedPlayers.add(player.getUniqueId());
+        forgetDepartedPlayers();
+    }
+    
+    private void forgetDepartedPlayers() {
+        if (departedPlayers.isEmpty() || pendingScans.get() > 0) return;
         
-        // Update player's item inventory data
-        if (itemCounts.isEmpty()) {
-            playerItemInventory.remove(playerId);
-        } else {
-            playerItemInventory.put(playerId, itemCounts);
+        for (Iterator<UUID> iterator = departedPlayers.iterator(); iterator.hasNext(); ) {
+            publishedScans.remove(iterator.next());
+            iterator.remove();
         }
     }
     
@@ -216,10 +619,10 @@ public class PlayerDataManager {
      * @return The item count or 0 if none
      */
     public int getItemCount(UUID playerId, String itemId) {
-        Map<String, Integer> itemCounts = playerItemInventory.get(playerId);
+        ItemCounts itemCounts = playerItemInventory.get(playerId);
         if (itemCounts == null) return 0;
         
-        return itemCounts.getOrDefault(itemId, 0);
+        return itemCounts.get(itemIdDictionary.idOf(itemId));
     }
     
     /**
@@ -228,7 +631,19 @@ public class PlayerDataManager {
      * @return Map of item IDs to counts, or empty map if none
      */
     public Map<String, Integer> getAllItemCounts(UUID playerId) {
-        return playerItemInventory.getOrDefault(playerId, new ConcurrentHashMap<>());
+        ItemCounts itemCounts = playerItemInventory.getOrDefault(playerId, ItemCounts.EMPTY);
+        
+        Map<String, Integer> result = new HashMap<>();
+        itemCounts.forEach((id, count) -> result.put(itemIdDictionary.nameOf(id), count));
+        return result;
+    }
+    
+    /**
+     * Get the dictionary that maps item IDs to the integer IDs used in the tracking data
+     * @return The item ID dictionary
+     */
+    public ItemIdDictionary getItemIdDictionary() {
+        return itemIdDictionary;
     }
     
     /**
@@ -239,12 +654,12 @@ public class PlayerDataManager {
     private CustomItem findMatchingCustomItem(ItemStack item) {
         if (item == null || item.getType() == Material.AIR) return null;
         
-        for (String namespaceName : namespaceManager.getNamespaceNames()) {
-            ItemNamespace namespace = namespaceManager.getNamespace(namespaceName);
-            if (namespace == null) continue;
-            
-            for (CustomItem customItem : namespace.getItems().values()) {
-                if (isSimilarItem(item, customItem)) {
+        // One snapshot for the whole lookup, safe to read from any thread.
+        // Only items of the same material are considered, so lazy items of other materials stay unbuilt
+        for (ItemNamespace namespace : namespaceManager.getRegistry().getNamespaces().values()) {
+            for (ItemEntry entry : namespace.getEntriesWithMaterial(item.getType())) {
+                CustomItem customItem = entry.get();
+                if (customItem != null && isSimilarItem(item, customItem)) {
                     return customItem;
                 }
             }
@@ -284,43 +699,113 @@ public class PlayerDataManager {
     }
     
     /**
-     * Called when the CoreItems reload command is executed
-     * This rescans all online players and updates the player_items.yml file
+     * Moves the tracked counts of renamed items to their new ID, so the tracking data
+     * follows a rename right away instead of after the next scan of each player
+     * @param diff The catalog changes
+     */
+    private void onCatalogChanged(RegistryDiff diff) {
+        if (!enabled || diff.getRenamed().isEmpty()) return;
+        
+        // Counts are keyed by the item ID without namespace, leave IDs another namespace still uses
+        ItemRegistry registry = namespaceManager.getRegistry();
+        Map<Integer, Integer> renamedIds = new HashMap<>();
+        for (RegistryDiff.Rename rename : diff.getRenamed()) {
+            if (registry.isItemIdInUse(rename.getOldId())) continue;
+            
+            int oldId = itemIdDictionary.idOf(rename.getOldId());
+            if (oldId >= 0) {
+                renamedIds.put(oldId, itemIdDictionary.getOrAssign(rename.getNewId()));
+            }
+        }
+        if (renamedIds.isEmpty()) return;
+        
+        AtomicBoolean migrated = new AtomicBoolean();
+        for (UUID playerId : playerItemInventory.keySet()) {
+            playerItemInventory.computeIfPresent(playerId, (id, counts) -> {
+                boolean affected = false;
+                for (int oldId : renamedIds.keySet()) {
+                    affected |= counts.get(oldId) > 0;
+                }
+                if (!affected) return counts;
+                
+                ItemCounts.Builder builder = new ItemCounts.Builder();
+                counts.forEach((itemId, count) -> builder.add(renamedIds.getOrDefault(itemId, itemId), count));
+                migrated.set(true);
+                return builder.build();
+            });
+        }
+        
+        if (migrated.get()) {
+            savePlayerDataAsync();
+        }
+    }
+    
+    /**
+     * Called when the CoreItems reload command is executed, after the new catalog is published.
+     * Online players are rescanned by the round-robin scanner rather than all in this tick,
+     * and the player_items.yml file is saved in the background once they are all scanned.
      */
     public void onReload() {
         loadConfig(); // Reload configuration values
-        scanAllOnlinePlayers();
-        savePlayerData();
+        registerCatalogIds();
+        updateScanExecutor();
         
         // Restart auto-scan task if needed
         if (enabled) {
+            stopAutoScanTask();
             if (autoScanEnabled) {
-                stopAutoScanTask();
                 startAutoScanTask();
             }
+            requestScanCycle();
+            
+            if (circulationEnabled) {
+                startCirculationTask();
+            } else {
+                stopCirculationTask();
+            }
         } else {
             stopAutoScanTask();
+            stopCirculationTask();
         }
     }
     
     /**
-     * Called when a player receives an item via the give command
+     * Called when a player receives an item via the give command.
+     * The player is rescanned with the other dirty players and saved once the scan is in.
      * @param player The player who received an item
      */
     public void onItemGive(Player player) {
-        if (!enabled || player == null) return;
-        scanPlayerInventory(player);
-        savePlayerData();
+        markDirty(player);
     }
     
     /**
-     * Called when a player takes an item from the GUI
-     * @param player The player who took an item
+     * Marks a player's inventory as changed, for example after taking items from the GUI.
+     * The player is rescanned shortly after, together with everyone else marked in the
+     * meantime, and the data is then saved once in the background.
+     * @param player The player whose inventory changed
      */
-    public void onGuiItemTake(Player player) {
+    public void markDirty(Player player) {
         if (!enabled || player == null) return;
-        scanPlayerInventory(player);
-        savePlayerData();
+        
+        dirtyPlayers.add(player.getUniqueId());
+        if (dirtyFlushTask == null) {
+            dirtyFlushTask = Bukkit.getScheduler().runTaskLater(plugin, this::flushDirtyPlayers, DIRTY_FLUSH_DELAY_TICKS);
+        }
+    }
+    
+    /**
+     * Scans the players marked dirty and saves once their scans are in
+     */
+    private void flushDirtyPlayers() {
+        dirtyFlushTask = null;
+        for (UUID playerId : dirtyPlayers) {
+            Player player = Bukkit.getPlayer(playerId);
+            if (player != null && player.isOnline()) {
+                scanPlayerInventory(player);
+            }
+        }
+        dirtyPlayers.clear();
+        saveAfterPendingScans();
     }
     
     /**
@@ -328,6 +813,14 @@ public class PlayerDataManager {
      */
     public void shutdown() {
         stopAutoScanTask();
+        stopCirculationTask();
+        if (dirtyFlushTask != null) {
+            dirtyFlushTask.cancel(); // The final scan below covers the dirty players
+            dirtyFlushTask = null;
+        }
+        
+        // Let in-flight async scans publish, then do the final scan on this thread
+        stopScanExecutor(true);
         if (enabled) {
             scanAllOnlinePlayers();
             savePlayerData();
@@ -0,0 +1,136 @@
+package com.yrhv.coreitems.give.storage;
+
+import org.yaml.snakeyaml.nodes.NodeId;
+import org.yaml.snakeyaml.nodes.Tag;
+import org.yaml.snakeyaml.resolver.Resolver;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Writes the player_items.yml file straight from the runtime maps.
+ * The output is the same YAML layout YamlConfiguration produces, but no document tree
+ * or full in-memory string is built: entries are streamed to a temp file which then
+ * replaces the real file in one rename.
+ */
+public class PlayerDataWriter {
+    
+    private static final int BUFFER_SIZE = 64 * 1024;
+    
+    // Keys matching this pattern can be written as plain YAML scalars
+    private static final Pattern PLAIN_KEY = Pattern.compile("[A-Za-z0-9_][A-Za-z0-9_\\-]*");
+    
+    // Plain scalars YAML would read back as booleans or null
+    private static final Set<String> RESERVED_WORDS = Set.of(
+            "y", "n", "yes", "no", "true", "false", "on", "off", "null");
+    
+    // Resolves plain scalars the way the loader does, so keys like 001 or 0x1F get quoted
+    private static final Resolver RESOLVER = new Resolver();
+    
+    private final Path file;
+    private final Path tempFile;
+    
+    /**
+     * Creates a writer for the given file
+     * 
+     * @param file The file to write
+     */
+    public PlayerDataWriter(Path file) {
+        this.file = file;
+        this.tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+    }
+    
+    /**
+     * Writes all player item counts and atomically replaces the target file
+     * 
+     * @param playerItemInventory Player UUID -> item counts
+     * @param dictionary The dictionary the counts are keyed by
+     * @return The number of players written
+     * @throws IOException If writing or replacing the file fails
+     */
+    public int write(Map<UUID, ItemCounts> playerItemInventory, ItemIdDictionary dictionary) throws IOException {
+        int players = 0;
+        
+        try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            Writer writer = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8), BUFFER_SIZE);
+            
+            for (Map.Entry<UUID, ItemCounts> entry : playerItemInventory.entrySet()) {
+                ItemCounts itemCounts = entry.getValue();
+                if (itemCounts.isEmpty()) continue;
+                
+                writer.write(entry.getKey().toString());
+                writer.write(":\n");
+                players++;
+                
+                try {
+                    itemCounts.forEach((id, count) -> writeEntry(writer, dictionary.nameOf(id), count));
+                } catch (UncheckedIOException e) {
+                    throw e.getCause();
+                }
+            }
+            
+            if (players == 0) {
+                writer.write("{}\n");
+            }
+            
+            writer.flush();
+            channel.force(false);
+        }
+        
+        try {
+            Files.move(tempFile, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+        
+        return players;
+    }
+    
+    /**
+     * Writes one indented "item: amount" line
+     */
+    private void writeEntry(Writer writer, String itemId, int amount) {
+        if (itemId == null) return;
+        
+        try {
+            writer.write("  ");
+            writeKey(writer, itemId);
+            writer.write(": ");
+            writer.write(Integer.toString(amount));
+            writer.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    /**
+     * Writes a mapping key, quoting it when it would not survive as a plain scalar:
+     * anything YAML would read back as a number, boolean or null instead of a string
+     */
+    private void writeKey(Writer writer, String key) throws IOException {
+        if (PLAIN_KEY.matcher(key).matches() && !RESERVED_WORDS.contains(key.toLowerCase())
+                && Tag.STR.equals(RESOLVER.resolve(NodeId.scalar, key, true))) {
+            writer.write(key);
+            return;
+        }
+        
+        writer.write('\'');
+        writer.write(key.replace("'", "''"));
+        writer.write('\'');
+    }
+}
@@ -2,11 +2,18 @@ package com.yrhv.coreitems.gui.manager;
 
 import com.yrhv.coreitems.CoreItems;
 import com.yrhv.coreitems.gui.menu.MainMenu;
+import com.yrhv.coreitems.gui.search.NamespaceSearchHandler;
+import com.yrhv.coreitems.gui.search.SearchService;
+import com.yrhv.coreitems.gui.util.ChatPromptManager;
+import com.yrhv.coreitems.gui.util.MenuIconCache;
+import com.yrhv.coreitems.gui.util.PageTemplateCache;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.InventoryHolder;
 
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 /**
@@ -17,6 +24,14 @@ public class MenuManager {
     private final CoreItems plugin;
     private final Map<UUID, InventoryHolder> activeMenus;
     
+    // Players who took items from a menu since their last menu closed
+    private final Set<UUID> itemsTaken = new HashSet<>();
+    private final MenuIconCache iconCache = new MenuIconCache();
+    private final PageTemplateCache pageTemplates;
+    private final SearchService searchService;
+    private final NamespaceSearchHandler searchHandler;
+    private final ChatPromptManager chatPrompts;
+    
     /**
      * Constructor for the MenuManager
      * 
@@ -25,6 +40,10 @@ public class MenuManager {
     public MenuManager(CoreItems plugin) {
         this.plugin = plugin;
         this.activeMenus = new HashMap<>();
+        this.pageTemplates = new PageTemplateCache(plugin);
+        this.searchService = new SearchService(plugin);
+        this.searchHandler = new NamespaceSearchHandler(plugin);
+        this.chatPrompts = new ChatPromptManager(plugin);
     }
     
     /**
@@ -66,4 +85,68 @@ public class MenuManager {
     public InventoryHolder getActiveMenu(Player player) {
         return activeMenus.get(player.getUniqueId());
     }
+    
+    /**
+     * Records that a player took an item from a menu
+     * 
+     * @param player The player
+     */
+    public void recordItemTaken(Player player) {
+        itemsTaken.add(player.getUniqueId());
+    }
+    
+    /**
+     * Checks if a player took items from a menu since the last check, and resets it
+     * 
+     * @param player The player
+     * @return True if items were taken
+     */
+    public boolean consumeItemsTaken(Player player) {
+        return itemsTaken.remove(player.getUniqueId());
+    }
+    
+    /**
+     * Gets the icon cache shared by all menus
+     * 
+     * @return The icon cache
+     */
+    public MenuIconCache getIconCache() {
+        return iconCache;
+    }
+    
+    /**
+     * Gets the page templates shared by all menus
+     * 
+     * @return The page template cache
+     */
+    public PageTemplateCache getPageTemplates() {
+        return pageTemplates;
+    }
+    
+    /**
+     * Gets the service that runs menu searches
+     * 
+     * @return The search service
+     */
+    public SearchService getSearchService() {
+        return searchService;
+    }
+    
+    /**
+     * Gets the handler that prompts players for search terms
+     * 
+     * @return The search prompt handler
+     */
+    public NamespaceSearchHandler getSearchHandler() {
+        return searchHandler;
+    }
+    
+    /**
+     * Gets the manager that asks players for chat input
+     * 
+     * @return The chat prompt manager
+     */
+    public ChatPromptManager getChatPrompts() {
+        return chatPrompts;
+    }
 }
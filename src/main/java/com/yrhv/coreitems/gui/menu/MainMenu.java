@@ -1,16 +1,15 @@
 package com.yrhv.coreitems.gui.menu;
 
 import com.yrhv.coreitems.CoreItems;
-import com.yrhv.coreitems.gui.search.NamespaceSearchHandler;
+import com.yrhv.coreitems.gui.util.MenuIconCache;
 import com.yrhv.coreitems.gui.util.PaginatedMenu;
-import com.yrhv.coreitems.namespace.manager.NamespaceManager;
+import com.yrhv.coreitems.namespace.model.ItemRegistry;
 import org.bukkit.ChatColor;
 import org.bukkit.Material;
 import org.bukkit.entity.Player;
 import org.bukkit.event.inventory.InventoryClickEvent;
 import org.bukkit.inventory.ItemStack;
 
-import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -18,7 +17,7 @@ import java.util.List;
  */
 public class MainMenu extends PaginatedMenu {
     
-    private final NamespaceManager namespaceManager;
+    private final ItemRegistry registry;
     private final List<String> namespaces;
     
     /**
@@ -29,8 +28,9 @@ public class MainMenu extends PaginatedMenu {
      */
     public MainMenu(CoreItems plugin, Player player) {
         super(plugin, player);
-        this.namespaceManager = plugin.getNamespaceManager();
-        this.namespaces = new ArrayList<>(namespaceManager.getNamespaceNames());
+        // The menu shows one registry snapshot, a reload while it is open doesn't change it
+        this.registry = plugin.getNamespaceManager().getRegistry();
+        this.namespaces = registry.getSortedNamespaceNames();
     }
     
     @Override
@@ -52,7 +52,7 @@ public class MainMenu extends PaginatedMenu {
         if (slot == 4 && event.getCurrentItem() != null) {
             player.closeInventory();
             // Start search process
-            new NamespaceSearchHandler(plugin).promptSearch(player);
+            plugin.getMenuManager().getSearchHandler().promptSearch(player);
             return;
         }
         
@@ -83,29 +83,39 @@ public class MainMenu extends PaginatedMenu {
     
     @Override
     public void setMenuItems() {
-        fillBorder();
+        // Every viewer shares one rendered template per page
+        showContents(plugin.getMenuManager().getPageTemplates().getTemplate(registry,
+                "namespaces:" + page, this::renderPage));
+    }
+    
+    /**
+     * Render the current page into a new slot array
+     */
+    private ItemStack[] renderPage() {
+        ItemStack[] contents = new ItemStack[getSlots()];
+        fillBorder(contents);
         
         // Add the close button
-        inventory.setItem(getCloseButtonSlot(), createCloseButton());
+        contents[getCloseButtonSlot()] = createCloseButton();
         
         // Add previous page button if needed
         if (hasPreviousPage()) {
-            inventory.setItem(getPreviousPageButtonSlot(), createPreviousPageButton());
+            contents[getPreviousPageButtonSlot()] = createPreviousPageButton();
         }
         
         // Add next page button if needed
         if (hasNextPage()) {
-            inventory.setItem(getNextPageButtonSlot(), createNextPageButton());
+            contents[getNextPageButtonSlot()] = createNextPageButton();
         }
         
         // Add search button in top middle (slot 4)
         ItemStack searchButton = createGuiItem(
             Material.OAK_SIGN,
-            ChatColor.GREEN + "Search Namespaces",
-            ChatColor.GRAY + "Click to search for a namespace",
+            ChatColor.GREEN + "Search",
+            ChatColor.GRAY + "Click to search for items or namespaces",
             ChatColor.YELLOW + "Type the name you want to find"
         );
-        inventory.setItem(4, searchButton);
+        contents[4] = searchButton;
         
         // No page indicator in main menu as requested
         
@@ -114,8 +124,8 @@ public class MainMenu extends PaginatedMenu {
             ItemStack noItems = createGuiItem(Material.BARRIER, 
                 ChatColor.RED + "No namespaces available", 
                 ChatColor.GRAY + "Create a namespace in the customs folder");
-            inventory.setItem(getFirstContentSlot(), noItems);
-            return;
+            contents[getFirstContentSlot()] = noItems;
+            return contents;
         }
         
         // Calculate pagination
@@ -123,23 +133,11 @@ public class MainMenu extends PaginatedMenu {
         int endIndex = Math.min(startIndex + getMaxItemsPerPage(), namespaces.size());
         
         // Add namespace items
+        MenuIconCache icons = plugin.getMenuManager().getIconCache();
         int slot = getFirstContentSlot();
         for (int i = startIndex; i < endIndex; i++) {
-            String namespaceName = namespaces.get(i);
-            
-            // Get the number of items in this namespace
-            int itemCount = 0;
-            if (namespaceManager.getNamespace(namespaceName) != null) {
-                itemCount = namespaceManager.getNamespace(namespaceName).getItems().size();
-            }
-            
-            // Create the namespace button
-            ItemStack namespaceItem = createGuiItem(
-                Material.CHEST,
-                ChatColor.GOLD + namespaceName,
-                ChatColor.GRAY + "Contains " + itemCount + " custom items",
-                ChatColor.YELLOW + "Click to view items"
-            );
+            // Decorated icons are cached per registry generation
+            ItemStack namespaceItem = icons.getNamespaceIcon(registry, namespaces.get(i));
             
             // Calculate the correct slot to keep items within borders
             // Skip to next row when reaching edge of content area
@@ -147,8 +145,9 @@ public class MainMenu extends PaginatedMenu {
                 slot += 2; // Skip the border column and move to next row
             }
             
-            inventory.setItem(slot++, namespaceItem);
+            contents[slot++] = namespaceItem;
         }
+        return contents;
     }
     
     @Override
@@ -196,10 +195,9 @@ public class MainMenu extends PaginatedMenu {
     }
     
     /**
-     * Refresh the menu items (for pagination)
+     * Refresh the menu items (for pagination), updating only the slots that change
      */
     private void refreshMenu() {
-        inventory.clear();
         setMenuItems();
     }
 }
@@ -1,7 +1,10 @@
 package com.yrhv.coreitems.gui.menu;
 
 import com.yrhv.coreitems.CoreItems;
+import com.yrhv.coreitems.give.model.CustomItem;
+import com.yrhv.coreitems.namespace.model.ItemEntry;
 import org.bukkit.Bukkit;
+import org.bukkit.ChatColor;
 import org.bukkit.Material;
 import org.bukkit.entity.Player;
 import org.bukkit.event.inventory.InventoryClickEvent;
@@ -24,6 +27,9 @@ public abstract class Menu implements InventoryHolder {
     protected Inventory inventory;
     protected int page = 0;
     
+    // Contents last put into the inventory, so a refresh only updates the slots that change
+    private ItemStack[] shownContents;
+    
     /**
      * Constructor for creating a menu
      * 
@@ -40,6 +46,7 @@ public abstract class Menu implements InventoryHolder {
      */
     public void open() {
         inventory = Bukkit.createInventory(this, getSlots(), getMenuName());
+        shownContents = null;
         this.setMenuItems();
         player.openInventory(inventory);
     }
@@ -70,10 +77,82 @@ public abstract class Menu implements InventoryHolder {
      */
     public abstract int getSlots();
     
+    /**
+     * Give an item that was clicked in the menu to the player
+     * 
+     * @param player The player who clicked
+     * @param namespaceName The namespace of the item
+     * @param entry The clicked item
+     * @param stack True to give a full stack (64) instead of a single item
+     */
+    protected void giveItem(Player player, String namespaceName, ItemEntry entry, boolean stack) {
+        String itemId = entry.getId();
+        CustomItem customItem = entry.get();
+        if (customItem == null) {
+            return;
+        }
+        
+        if (stack) {
+            // Right-click: Give a stack of the item (64)
+            ItemStack itemStack = customItem.toItemStack().clone();
+            itemStack.setAmount(64); // Set to a full stack
+            player.getInventory().addItem(itemStack);
+            plugin.getMenuManager().recordItemTaken(player);
+            
+            player.sendMessage(ChatColor.GREEN + "You received a stack of " + namespaceName + ":" + itemId);
+        } else {
+            // Left-click: Give a single item (default behavior)
+            if (plugin.getNamespaceManager().giveItemToPlayer(player, namespaceName, itemId)) {
+                plugin.getMenuManager().recordItemTaken(player);
+                player.sendMessage(ChatColor.GREEN + "You received the item: " + namespaceName + ":" + itemId);
+            } else {
+                player.sendMessage(ChatColor.RED + "Failed to give you the item: " + namespaceName + ":" + itemId);
+            }
+        }
+    }
+    
+    /**
+     * Show the given contents in the open inventory.
+     * On a fresh inventory all slots are set at once; after that only slots whose item differs
+     * from what is shown are updated, so paging does not redraw the border and navigation.
+     * 
+     * @param contents The slot contents, which are not modified and must not be modified later
+     */
+    protected void showContents(ItemStack[] contents) {
+        ItemStack[] shown = shownContents;
+        shownContents = contents;
+        if (shown == null || shown.length != contents.length) {
+            inventory.setContents(contents);
+            return;
+        }
+        
+        for (int i = 0; i < contents.length; i++) {
+            ItemStack item = contents[i];
+            if (item != shown[i] && (item == null || !item.equals(shown[i]))) {
+                inventory.setItem(i, item);
+            }
+        }
+    }
+    
     /**
      * Fill the border of the menu with the configured item
      */
     protected void fillBorder() {
+        ItemStack[] border = new ItemStack[inventory.getSize()];
+        fillBorder(border);
+        for (int i = 0; i < border.length; i++) {
+            if (border[i] != null) {
+                inventory.setItem(i, border[i]);
+            }
+        }
+    }
+    
+    /**
+     * Fill the border of a page being rendered with the configured item
+     * 
+     * @param contents The slot contents of the page, one row is 9 slots
+     */
+    protected void fillBorder(ItemStack[] contents) {
         // Get border item from config, default to BLACK_STAINED_GLASS_PANE
         String borderItemStr = plugin.getConfig().getString("gui.border-item", "BLACK_STAINED_GLASS_PANE");
         
@@ -93,19 +172,19 @@ public abstract class Menu implements InventoryHolder {
         
         ItemStack filler = createGuiItem(borderMaterial, " ");
         
-        int slots = inventory.getSize();
+        int slots = contents.length;
         int rows = slots / 9;
         
         // Fill the top and bottom rows
         for (int i = 0; i < 9; i++) {
-            inventory.setItem(i, filler); // Top row
-            inventory.setItem(slots - 9 + i, filler); // Bottom row
+            contents[i] = filler; // Top row
+            contents[slots - 9 + i] = filler; // Bottom row
         }
         
         // Fill the first and last columns (excluding corners which are already filled)
         for (int i = 1; i < rows - 1; i++) {
-            inventory.setItem(i * 9, filler); // First column
-            inventory.setItem(i * 9 + 8, filler); // Last column
+            contents[i * 9] = filler; // First column
+            contents[i * 9 + 8] = filler; // Last column
         }
     }
     
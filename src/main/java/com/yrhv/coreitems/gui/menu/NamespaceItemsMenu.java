@@ -1,27 +1,45 @@
 package com.yrhv.coreitems.gui.menu;
 
 import com.yrhv.coreitems.CoreItems;
-import com.yrhv.coreitems.give.model.CustomItem;
+import com.yrhv.coreitems.gui.util.MenuIconCache;
 import com.yrhv.coreitems.gui.util.PaginatedMenu;
-import com.yrhv.coreitems.namespace.model.ItemNamespace;
+import com.yrhv.coreitems.namespace.model.ItemEntry;
+import com.yrhv.coreitems.namespace.model.ItemFacets;
+import com.yrhv.coreitems.namespace.model.ItemFilter;
+import com.yrhv.coreitems.namespace.model.ItemRegistry;
+import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
 import org.bukkit.Material;
 import org.bukkit.entity.Player;
 import org.bukkit.event.inventory.InventoryClickEvent;
 import org.bukkit.inventory.ItemStack;
-import org.bukkit.inventory.meta.ItemMeta;
 
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
+import java.util.function.Consumer;
 
 /**
- * Menu for displaying and selecting items within a namespace
+ * Menu for displaying and selecting items within a namespace.
+ * Large namespaces can be filtered by material, click command and custom model data, and
+ * any page can be jumped to directly. Filters select from precomputed facets of the
+ * namespace, and only the visible page is ever rendered.
  */
 public class NamespaceItemsMenu extends PaginatedMenu {
     
+    // Filter and navigation controls in the bottom row
+    private static final int MATERIAL_SLOT = 37;
+    private static final int COMMAND_SLOT = 38;
+    private static final int MODEL_DATA_SLOT = 39;
+    private static final int JUMP_SLOT = 41;
+    private static final int CLEAR_SLOT = 42;
+    
     private final String namespaceName;
-    private final List<Map.Entry<String, CustomItem>> items;
+    private final ItemRegistry registry;
+    private final List<ItemEntry> items;
+    
+    private ItemFilter filter = ItemFilter.NONE;
+    
+    // Positions in items of the items the filter shows, null while nothing is filtered
+    private int[] visible;
     
     /**
      * Constructor for the namespace items menu
@@ -34,13 +52,9 @@ public class NamespaceItemsMenu extends PaginatedMenu {
         super(plugin, player);
         this.namespaceName = namespaceName;
         
-        // Load items from the namespace
-        ItemNamespace namespace = plugin.getNamespaceManager().getNamespace(namespaceName);
-        if (namespace != null) {
-            this.items = new ArrayList<>(namespace.getItems().entrySet());
-        } else {
-            this.items = new ArrayList<>();
-        }
+        // Presorted item entries of the namespace, items are only built when their page is shown
+        this.registry = plugin.getNamespaceManager().getRegistry();
+        this.items = registry.getSortedEntries(namespaceName);
     }
     
     @Override
@@ -55,69 +69,86 @@ public class NamespaceItemsMenu extends PaginatedMenu {
     
     @Override
     public void handleMenu(InventoryClickEvent event) {
+        event.setCancelled(true);
+        
         Player player = (Player) event.getWhoClicked();
         int slot = event.getSlot();
+        if (event.getCurrentItem() == null) {
+            return;
+        }
         
         // Check if the clicked slot is an item button
-        if (event.getCurrentItem() != null && isContentSlot(slot)) {
-            int index = slot - getFirstContentSlot() + (page * getMaxItemsPerPage());
+        if (isContentSlot(slot)) {
+            int index = page * getMaxItemsPerPage() + getContentIndex(slot);
             
-            if (index >= 0 && index < items.size()) {
-                Map.Entry<String, CustomItem> entry = items.get(index);
-                String itemId = entry.getKey();
-                CustomItem customItem = entry.getValue();
-                
-                // Check for right-click vs left-click
-                boolean isRightClick = event.isRightClick();
-                
-                if (isRightClick) {
-                    // Right-click: Give a stack of the item (64)
-                    ItemStack stack = customItem.toItemStack().clone();
-                    stack.setAmount(64); // Set to a full stack
-                    player.getInventory().addItem(stack);
-                    
-                    player.sendMessage(ChatColor.GREEN + "You received a stack of " + namespaceName + ":" + itemId);
-                } else {
-                    // Left-click: Give a single item (default behavior)
-                    if (plugin.getNamespaceManager().giveItemToPlayer(player, namespaceName, itemId)) {
-                        player.sendMessage(ChatColor.GREEN + "You received the item: " + namespaceName + ":" + itemId);
-                    } else {
-                        player.sendMessage(ChatColor.RED + "Failed to give you the item: " + namespaceName + ":" + itemId);
-                    }
-                }
+            if (index < getShownCount()) {
+                // Left-click gives a single item, right-click a stack
+                giveItem(player, namespaceName, getShownItem(index), event.isRightClick());
                 // Don't close inventory or refresh - leave the menu open
             }
-        } else if (slot == getBackButtonSlot() && event.getCurrentItem() != null) {
+        } else if (slot == getBackButtonSlot()) {
             // Back button - return to main menu
             new MainMenu(plugin, player).open();
-        } else if (slot == getNextPageButtonSlot() && event.getCurrentItem() != null && hasNextPage()) {
+        } else if (slot == getNextPageButtonSlot() && hasNextPage()) {
             // Next page button
             page++;
             refreshMenu();
-        } else if (slot == getPreviousPageButtonSlot() && event.getCurrentItem() != null && hasPreviousPage()) {
+        } else if (slot == getPreviousPageButtonSlot() && hasPreviousPage()) {
             // Previous page button
             page--;
             refreshMenu();
+        } else if (slot == MATERIAL_SLOT) {
+            // Left-click shows the next material, right-click the previous one, shift-click all
+            applyFilter(filter.withMaterial(event.isShiftClick() ? null : cycleMaterial(event.isRightClick() ? -1 : 1)));
+        } else if (slot == COMMAND_SLOT) {
+            // All -> with command -> without command -> all
+            Boolean hasCommand = filter.getHasCommand();
+            applyFilter(filter.withCommand(hasCommand == null ? Boolean.TRUE : hasCommand ? Boolean.FALSE : null));
+        } else if (slot == MODEL_DATA_SLOT) {
+            if (filter.hasModelDataRange() && event.isRightClick()) {
+                applyFilter(filter.withoutModelData());
+            } else {
+                promptModelData(player);
+            }
+        } else if (slot == JUMP_SLOT && getPageCount() > 1) {
+            promptPage(player);
+        } else if (slot == CLEAR_SLOT && !filter.isEmpty()) {
+            applyFilter(ItemFilter.NONE);
         }
-        
-        event.setCancelled(true);
     }
     
     @Override
     public void setMenuItems() {
-        fillBorder();
+        // Filters include a model data range typed in chat, so only unfiltered pages are kept as
+        // shared templates; filtered pages only show a page of cached icons and are rendered directly
+        if (!filter.isEmpty()) {
+            showContents(renderPage());
+            return;
+        }
+        
+        // Everyone browsing this namespace shares one rendered template per page
+        showContents(plugin.getMenuManager().getPageTemplates().getTemplate(registry,
+                "items:" + namespaceName.toLowerCase() + ":" + page, this::renderPage));
+    }
+    
+    /**
+     * Render the current page into a new slot array
+     */
+    private ItemStack[] renderPage() {
+        ItemStack[] contents = new ItemStack[getSlots()];
+        fillBorder(contents);
         
         // Add the back button
-        inventory.setItem(getBackButtonSlot(), createBackButton());
+        contents[getBackButtonSlot()] = createBackButton();
         
         // Add next page button if needed
         if (hasNextPage()) {
-            inventory.setItem(getNextPageButtonSlot(), createNextPageButton());
+            contents[getNextPageButtonSlot()] = createNextPageButton();
         }
         
         // Add previous page button if needed
         if (hasPreviousPage()) {
-            inventory.setItem(getPreviousPageButtonSlot(), createPreviousPageButton());
+            contents[getPreviousPageButtonSlot()] = createPreviousPageButton();
         }
         
         if (items.isEmpty()) {
@@ -125,42 +156,149 @@ public class NamespaceItemsMenu extends PaginatedMenu {
             ItemStack noItems = createGuiItem(Material.BARRIER, 
                 ChatColor.RED + "No items available", 
                 ChatColor.GRAY + "This namespace has no custom items");
-            inventory.setItem(getFirstContentSlot(), noItems);
-            return;
+            contents[getFirstContentSlot()] = noItems;
+            return contents;
+        }
+        
+        renderControls(contents);
+        
+        if (getShownCount() == 0) {
+            contents[22] = createGuiItem(Material.BARRIER,
+                ChatColor.RED + "No matching items",
+                ChatColor.GRAY + "No items in this namespace match the filter");
+            return contents;
         }
         
-        // Calculate pagination
+        // Only the items of this page are looked at
+        MenuIconCache icons = plugin.getMenuManager().getIconCache();
         int startIndex = page * getMaxItemsPerPage();
-        int endIndex = Math.min(startIndex + getMaxItemsPerPage(), items.size());
+        int endIndex = Math.min(startIndex + getMaxItemsPerPage(), getShownCount());
         
         // Add item buttons
-        int slot = getFirstContentSlot();
         for (int i = startIndex; i < endIndex; i++) {
-            Map.Entry<String, CustomItem> entry = items.get(i);
-            // We don't need to use itemId here as we're just showing the item
-            CustomItem customItem = entry.getValue();
-            
-            // Create an actual item stack representation
-            ItemStack itemStack = customItem.toItemStack();
-            ItemMeta meta = itemStack.getItemMeta();
-            
-            if (meta != null) {
-                // Add additional lore for the GUI
-                List<String> lore = meta.hasLore() ? meta.getLore() : new ArrayList<>();
-                if (lore == null) lore = new ArrayList<>();
-                
-                lore.add("");
-                lore.add(ChatColor.YELLOW + "Left-click: Get 1 item");
-                lore.add(ChatColor.YELLOW + "Right-click: Get a stack (64)");
-                
-                meta.setLore(lore);
-                itemStack.setItemMeta(meta);
-            }
-            
-            inventory.setItem(slot++, itemStack);
+            // Decorated icons are cached, so this only copies them into the slots
+            contents[getContentSlot(i - startIndex)] = icons.getItemIcon(registry, getShownItem(i));
+        }
+        return contents;
+    }
+    
+    /**
+     * Render the filter buttons and the page indicator into the bottom row
+     */
+    private void renderControls(ItemStack[] contents) {
+        Material material = filter.getMaterial();
+        contents[MATERIAL_SLOT] = createGuiItem(material != null ? material : Material.HOPPER,
+            ChatColor.GOLD + "Material: " + ChatColor.WHITE + (material != null ? material.name() : "All"),
+            ChatColor.GRAY + "Left-click: next material",
+            ChatColor.GRAY + "Right-click: previous material",
+            ChatColor.GRAY + "Shift-click: all materials");
+        
+        Boolean hasCommand = filter.getHasCommand();
+        contents[COMMAND_SLOT] = createGuiItem(Material.COMMAND_BLOCK,
+            ChatColor.GOLD + "Click command: " + ChatColor.WHITE
+                    + (hasCommand == null ? "Any" : hasCommand ? "Has command" : "No command"),
+            ChatColor.GRAY + "Click to change");
+        
+        contents[MODEL_DATA_SLOT] = createGuiItem(Material.ITEM_FRAME,
+            ChatColor.GOLD + "Model data: " + ChatColor.WHITE + (filter.hasModelDataRange()
+                    ? filter.getMinModelData() + " - " + filter.getMaxModelData() : "Any"),
+            ChatColor.GRAY + "Left-click: enter a range",
+            ChatColor.GRAY + "Right-click: any model data");
+        
+        contents[JUMP_SLOT] = createGuiItem(Material.COMPASS,
+            ChatColor.GOLD + "Page " + (page + 1) + "/" + getPageCount(),
+            ChatColor.GRAY + String.valueOf(getShownCount()) + " items",
+            ChatColor.GRAY + "Click to jump to a page");
+        
+        if (!filter.isEmpty()) {
+            contents[CLEAR_SLOT] = createGuiItem(Material.BUCKET,
+                ChatColor.RED + "Clear filters",
+                ChatColor.GRAY + "Click to show all items");
         }
     }
     
+    /**
+     * Show a different selection of items, starting at the first page
+     */
+    private void applyFilter(ItemFilter newFilter) {
+        filter = newFilter;
+        visible = newFilter.isEmpty() ? null : registry.getFacets(namespaceName).select(newFilter);
+        page = 0;
+        refreshMenu();
+    }
+    
+    /**
+     * Get the material after or before the filtered one, where null stands for all materials
+     */
+    private Material cycleMaterial(int step) {
+        ItemFacets facets = registry.getFacets(namespaceName);
+        List<Material> materials = facets.getMaterials();
+        int current = filter.getMaterial() == null ? materials.size() : materials.indexOf(filter.getMaterial());
+        int next = Math.floorMod(current + step, materials.size() + 1);
+        return next == materials.size() ? null : materials.get(next);
+    }
+    
+    /**
+     * Ask for a page number in chat and reopen the menu on that page
+     */
+    private void promptPage(Player player) {
+        int pages = getPageCount();
+        prompt(player, "Page jump", ChatColor.GREEN + "Type a page number from 1 to " + pages + ".", input -> {
+            try {
+                page = Math.max(0, Math.min(pages, Integer.parseInt(input.trim())) - 1);
+            } catch (NumberFormatException e) {
+                player.sendMessage(ChatColor.RED + "Invalid page number: " + input);
+            }
+        });
+    }
+    
+    /**
+     * Ask for a custom model data range in chat and reopen the menu with it applied
+     */
+    private void promptModelData(Player player) {
+        prompt(player, "Model data filter", ChatColor.GREEN + "Type a custom model data range such as 1000-1999, or a single number.", input -> {
+            String[] bounds = input.trim().split("\\s*-\\s*", 2);
+            try {
+                int min = Integer.parseInt(bounds[0]);
+                int max = bounds.length > 1 ? Integer.parseInt(bounds[1]) : min;
+                filter = filter.withModelData(min, max);
+                visible = registry.getFacets(namespaceName).select(filter);
+                page = 0;
+            } catch (NumberFormatException e) {
+                player.sendMessage(ChatColor.RED + "Invalid range: " + input);
+            }
+        });
+    }
+    
+    /**
+     * Close the menu, ask a question in chat and reopen the menu once it is answered or cancelled
+     */
+    private void prompt(Player player, String name, String question, Consumer<String> onAnswer) {
+        player.closeInventory();
+        plugin.getMenuManager().getChatPrompts().prompt(player, name,
+                input -> Bukkit.getScheduler().runTask(plugin, () -> {
+                    if (!player.isOnline()) return;
+                    onAnswer.accept(input);
+                    open();
+                }),
+                this::open);
+        
+        player.sendMessage(question);
+        player.sendMessage(ChatColor.YELLOW + "Type 'cancel' to go back.");
+    }
+    
+    private int getShownCount() {
+        return visible != null ? visible.length : items.size();
+    }
+    
+    private ItemEntry getShownItem(int index) {
+        return items.get(visible != null ? visible[index] : index);
+    }
+    
+    private int getPageCount() {
+        return Math.max(1, (getShownCount() + getMaxItemsPerPage() - 1) / getMaxItemsPerPage());
+    }
+    
     @Override
     protected int getMaxItemsPerPage() {
         return 21; // 3 rows of items (minus borders)
@@ -182,7 +320,7 @@ public class NamespaceItemsMenu extends PaginatedMenu {
     
     @Override
     protected boolean hasNextPage() {
-        return (page + 1) * getMaxItemsPerPage() < items.size();
+        return (page + 1) * getMaxItemsPerPage() < getShownCount();
     }
     
     @Override
@@ -215,10 +353,9 @@ public class NamespaceItemsMenu extends PaginatedMenu {
     }
     
     /**
-     * Refresh the menu items (for pagination)
+     * Refresh the menu items (for pagination), updating only the slots that change
      */
     private void refreshMenu() {
-        inventory.clear();
         setMenuItems();
     }
 }
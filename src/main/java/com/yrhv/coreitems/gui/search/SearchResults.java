@@ -0,0 +1,105 @@
+package com.yrhv.coreitems.gui.search;
+
+import com.yrhv.coreitems.namespace.model.FuzzyItemIndex;
+import com.yrhv.coreitems.namespace.model.ItemRegistry;
+import com.yrhv.coreitems.namespace.model.ItemSearchIndex;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+/**
+ * The results of one search against a registry snapshot: matching namespaces first, then
+ * matching items, best matches first. If nothing matches, the namespaces and items with the
+ * closest names are used instead. Computed off the main thread and immutable afterwards.
+ */
+public final class SearchResults {
+    
+    // Upper bound for item results, more than that is not useful to page through
+    private static final int MAX_ITEM_RESULTS = 500;
+    private static final int MAX_FUZZY_RESULTS = 21;
+    
+    private final ItemRegistry registry;
+    private final String searchTerm;
+    private final List<String> namespaces;
+    private final List<ItemSearchIndex.Hit> items;
+    private final boolean closeMatches;
+    
+    private SearchResults(ItemRegistry registry, String searchTerm, List<String> namespaces,
+                          List<ItemSearchIndex.Hit> items, boolean closeMatches) {
+        this.registry = registry;
+        this.searchTerm = searchTerm;
+        this.namespaces = Collections.unmodifiableList(namespaces);
+        this.items = Collections.unmodifiableList(items);
+        this.closeMatches = closeMatches;
+    }
+    
+    /**
+     * Runs a search. Safe to call from any thread, the registry snapshot never changes.
+     * 
+     * @param registry The registry snapshot to search
+     * @param searchTerm The search term entered by the player
+     * @param superseded Checked between the steps of the search, stops it once it returns true
+     * @return The results, or null if the search was stopped
+     */
+    public static SearchResults compute(ItemRegistry registry, String searchTerm, BooleanSupplier superseded) {
+        String term = searchTerm.toLowerCase();
+        
+        // Get namespaces matching the search term
+        List<String> namespaces = new ArrayList<>();
+        for (String name : registry.getSortedNamespaceNames()) {
+            if (name.toLowerCase().contains(term)) {
+                namespaces.add(name);
+            }
+        }
+        if (superseded.getAsBoolean()) return null;
+        
+        // Get items matching the search term by ID, name or lore
+        List<ItemSearchIndex.Hit> items = registry.getSearchIndex().search(term, MAX_ITEM_RESULTS);
+        if (!namespaces.isEmpty() || !items.isEmpty()) {
+            return new SearchResults(registry, searchTerm, namespaces, items, false);
+        }
+        if (superseded.getAsBoolean()) return null;
+        
+        // Nothing matched as typed, fall back to the closest names in case of a typo
+        FuzzyItemIndex fuzzyIndex = registry.getFuzzyIndex();
+        namespaces.addAll(fuzzyIndex.suggestNamespaces(term, MAX_FUZZY_RESULTS));
+        items = fuzzyIndex.findItems(term, MAX_FUZZY_RESULTS);
+        return new SearchResults(registry, searchTerm, namespaces, items, true);
+    }
+    
+    public ItemRegistry getRegistry() {
+        return registry;
+    }
+    
+    public String getSearchTerm() {
+        return searchTerm;
+    }
+    
+    public List<String> getNamespaces() {
+        return namespaces;
+    }
+    
+    public List<ItemSearchIndex.Hit> getItems() {
+        return items;
+    }
+    
+    /**
+     * Checks if nothing matched exactly and the results are the closest names instead
+     * 
+     * @return True for close matches
+     */
+    public boolean isCloseMatches() {
+        return closeMatches;
+    }
+    
+    /**
+     * Gets the number of namespace and item results
+     * 
+     * @return The result count
+     */
+    public int size() {
+        return namespaces.size() + items.size();
+    }
+}
@@ -2,55 +2,64 @@ package com.yrhv.coreitems.gui.search;
 
 import com.yrhv.coreitems.CoreItems;
 import com.yrhv.coreitems.gui.menu.MainMenu;
-import com.yrhv.coreitems.gui.menu.Menu;
 import com.yrhv.coreitems.gui.menu.NamespaceItemsMenu;
+import com.yrhv.coreitems.gui.util.MenuIconCache;
+import com.yrhv.coreitems.gui.util.PaginatedMenu;
+import com.yrhv.coreitems.namespace.model.ItemRegistry;
+import com.yrhv.coreitems.namespace.model.ItemSearchIndex;
 import org.bukkit.ChatColor;
 import org.bukkit.Material;
 import org.bukkit.entity.Player;
 import org.bukkit.event.inventory.InventoryClickEvent;
 import org.bukkit.inventory.ItemStack;
 
-import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
- * Menu for displaying namespace search results
+ * Menu for displaying search results: matching namespaces first, then matching items
+ * from all namespaces, best matches first. Items can be taken directly from the results.
+ * The search itself runs before the menu is created, see {@link SearchService}.
  */
-public class SearchResultsMenu extends Menu {
+public class SearchResultsMenu extends PaginatedMenu {
     
+    private final ItemRegistry registry;
     private final String searchTerm;
-    private final List<String> results;
+    private final List<String> namespaces;
+    private final List<ItemSearchIndex.Hit> items;
+    
+    // True if nothing matched exactly and the results are the closest names instead
+    private final boolean closeMatches;
     
     /**
      * Constructor for the search results menu
      * 
      * @param plugin The CoreItems plugin instance
      * @param player The player viewing the menu
-     * @param searchTerm The search term entered by the player
+     * @param results The finished search, see {@link SearchService}
      */
-    public SearchResultsMenu(CoreItems plugin, Player player, String searchTerm) {
+    public SearchResultsMenu(CoreItems plugin, Player player, SearchResults results) {
         super(plugin, player);
-        this.searchTerm = searchTerm;
-        
-        // Get namespaces matching the search term
-        this.results = plugin.getNamespaceManager().getNamespaceNames().stream()
-                .filter(name -> name.toLowerCase().contains(searchTerm.toLowerCase()))
-                .collect(Collectors.toList());
+        this.registry = results.getRegistry();
+        this.searchTerm = results.getSearchTerm();
+        this.namespaces = results.getNamespaces();
+        this.items = results.getItems();
+        this.closeMatches = results.isCloseMatches();
     }
     
     @Override
     public String getMenuName() {
-        return ChatColor.DARK_PURPLE + "Search Results: " + searchTerm;
+        return ChatColor.DARK_PURPLE + (closeMatches ? "Close Matches: " : "Search Results: ") + searchTerm;
     }
     
     @Override
     public int getSlots() {
-        return 36; // 4 rows
+        return 45; // 5 rows
     }
     
     @Override
     public void handleMenu(InventoryClickEvent event) {
+        event.setCancelled(true);
+        
         Player player = (Player) event.getWhoClicked();
         int slot = event.getSlot();
         
@@ -58,76 +67,123 @@ public class SearchResultsMenu extends Menu {
             return;
         }
         
-        // Back button (center bottom)
-        if (slot == 31) {
+        if (isContentSlot(slot)) {
+            int index = page * getMaxItemsPerPage() + getContentIndex(slot);
+            
+            if (index < namespaces.size()) {
+                // Namespace result - open that namespace's items
+                new NamespaceItemsMenu(plugin, player, namespaces.get(index)).open();
+            } else if (index - namespaces.size() < items.size()) {
+                // Item result - left-click gives a single item, right-click a stack
+                ItemSearchIndex.Hit hit = items.get(index - namespaces.size());
+                giveItem(player, hit.getNamespace().getName(), hit.getEntry(), event.isRightClick());
+            }
+        } else if (slot == getCloseButtonSlot()) {
+            // Back button - return to main menu
             new MainMenu(plugin, player).open();
-        } 
-        // Result item (could be a namespace or "no results" barrier)
-        else if (slot == 13 && results.size() == 1) {
-            // If there's exactly one result, open that namespace's items
-            String namespaceName = results.get(0);
-            new NamespaceItemsMenu(plugin, player, namespaceName).open();
+        } else if (slot == getNextPageButtonSlot() && hasNextPage()) {
+            page++;
+            setMenuItems();
+        } else if (slot == getPreviousPageButtonSlot() && hasPreviousPage()) {
+            page--;
+            setMenuItems();
         }
-        
-        event.setCancelled(true);
     }
     
     @Override
     public void setMenuItems() {
-        // Fill the entire inventory with the border pattern
-        fillBorder();
+        // Results differ per search, so the page is rendered here rather than shared
+        showContents(renderPage());
+    }
+    
+    /**
+     * Render the current page into a new slot array
+     */
+    private ItemStack[] renderPage() {
+        ItemStack[] contents = new ItemStack[getSlots()];
+        fillBorder(contents);
         
         // Add back button in the bottom center
-        inventory.setItem(31, createBackButton());
+        contents[getCloseButtonSlot()] = createBackButton();
+        
+        if (hasPreviousPage()) {
+            contents[getPreviousPageButtonSlot()] = createPreviousPageButton();
+        }
         
-        // Show search results (or lack thereof)
-        if (results.isEmpty()) {
-            // No matching namespaces found
-            ItemStack noResults = createGuiItem(
+        if (hasNextPage()) {
+            contents[getNextPageButtonSlot()] = createNextPageButton();
+        }
+        
+        if (getResultCount() == 0) {
+            // Nothing matched
+            contents[22] = createGuiItem(
                 Material.BARRIER,
                 ChatColor.RED + "No Results Found",
-                ChatColor.GRAY + "No namespaces match your search: " + searchTerm,
+                ChatColor.GRAY + "No namespaces or items match your search: " + searchTerm,
                 ChatColor.YELLOW + "Click the back button to return"
             );
-            
-            inventory.setItem(13, noResults);
-        } else if (results.size() == 1) {
-            // Single result - display it in the center
-            String namespaceName = results.get(0);
-            int itemCount = plugin.getNamespaceManager().getNamespace(namespaceName).getItems().size();
-            
-            ItemStack result = createGuiItem(
-                Material.CHEST,
-                ChatColor.GOLD + namespaceName,
-                ChatColor.GRAY + "Contains " + itemCount + " custom items",
-                ChatColor.YELLOW + "Click to view items"
-            );
-            
-            inventory.setItem(13, result);
-        } else {
-            // Multiple results - display the number found and instructions
-            List<String> lore = new ArrayList<>();
-            lore.add(ChatColor.GRAY + "Found " + results.size() + " matching namespaces:");
-            
-            // List up to 5 results in the lore
-            for (int i = 0; i < Math.min(5, results.size()); i++) {
-                lore.add(ChatColor.YELLOW + "• " + results.get(i));
-            }
-            
-            if (results.size() > 5) {
-                lore.add(ChatColor.YELLOW + "• ...and " + (results.size() - 5) + " more");
+            return contents;
+        }
+        
+        MenuIconCache icons = plugin.getMenuManager().getIconCache();
+        int start = page * getMaxItemsPerPage();
+        int end = Math.min(start + getMaxItemsPerPage(), getResultCount());
+        for (int index = start; index < end; index++) {
+            int slot = getContentSlot(index - start);
+            if (index < namespaces.size()) {
+                contents[slot] = icons.getNamespaceIcon(registry, namespaces.get(index));
+            } else {
+                contents[slot] = icons.getItemIcon(registry, items.get(index - namespaces.size()).getEntry());
             }
-            
-            lore.add("");
-            lore.add(ChatColor.AQUA + "Return to main menu to browse all namespaces");
-            
-            ItemStack multipleResults = createGuiItem(
-                Material.BOOK,
-                ChatColor.GREEN + "Multiple Results Found",
-                lore
-            );
-            
-            inventory.setItem(13, multipleResults);
         }
+        return contents;
+    }
+    
+    private int getResultCount() {
+        return namespaces.size() + items.size();
+    }
+    
+    @Override
+    protected int getMaxItemsPerPage() {
+        return 21; // 3 rows of results (minus borders)
+    }
+    
+    @Override
+    protected int getFirstContentSlot() {
+        return 10; // First slot in the second row, after the border
+    }
+    
+    @Override
+    protected boolean isContentSlot(int slot) {
+        // Check if the slot is in the content area (rows 2-4, excluding borders)
+        int row = slot / 9;
+        int col = slot % 9;
+        
+        return (row >= 1 && row <= 3) && col > 0 && col < 8;
+    }
+    
+    @Override
+    protected boolean hasNextPage() {
+        return (page + 1) * getMaxItemsPerPage() < getResultCount();
+    }
+    
+    @Override
+    protected boolean hasPreviousPage() {
+        return page > 0;
+    }
+    
+    @Override
+    protected int getNextPageButtonSlot() {
+        return getSlots() - 1; // Bottom right corner
+    }
+    
+    @Override
+    protected int getPreviousPageButtonSlot() {
+        return getSlots() - 9; // Bottom left corner
+    }
+    
+    @Override
+    protected int getCloseButtonSlot() {
+        return getSlots() - 5; // Bottom middle, used as back button
     }
 }
@@ -0,0 +1,95 @@
+package com.yrhv.coreitems.gui.search;
+
+import com.yrhv.coreitems.CoreItems;
+import com.yrhv.coreitems.namespace.model.ItemRegistry;
+import org.bukkit.Bukkit;
+import org.bukkit.ChatColor;
+import org.bukkit.entity.Player;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+
+/**
+ * Runs menu searches off the main thread.
+ * A search works on the registry snapshot that is current when it starts, so a reload in the
+ * meantime can't change what it sees. Only opening the results goes back to the main thread.
+ * Every search gets a sequence number and each player only keeps the latest one: an older
+ * search still running stops at its next step and never opens its results.
+ */
+public class SearchService {
+    
+    private final CoreItems plugin;
+    private final AtomicLong sequence = new AtomicLong();
+    
+    // Player -> sequence number of their latest search, until its results are opened
+    private final Map<UUID, Long> latestSearch = new ConcurrentHashMap<>();
+    
+    /**
+     * Creates the search service
+     * 
+     * @param plugin The CoreItems plugin instance
+     */
+    public SearchService(CoreItems plugin) {
+        this.plugin = plugin;
+    }
+    
+    /**
+     * Searches for a player and opens the results when done, replacing any search of theirs
+     * that is still running. Runs the search on the calling thread unless that is the main
+     * thread, in which case it runs on a worker.
+     * 
+     * @param player The player searching
+     * @param searchTerm The search term entered by the player
+     */
+    public void search(Player player, String searchTerm) {
+        UUID playerId = player.getUniqueId();
+        long searchId = sequence.incrementAndGet();
+        latestSearch.put(playerId, searchId);
+        ItemRegistry registry = plugin.getNamespaceManager().getRegistry();
+        
+        Runnable task = () -> run(player, searchId, registry, searchTerm);
+        if (Bukkit.isPrimaryThread()) {
+            Bukkit.getScheduler().runTaskAsynchronously(plugin, task);
+        } else {
+            task.run();
+        }
+    }
+    
+    /**
+     * Cancels the running search of a player, if any
+     * 
+     * @param player The player
+     */
+    public void cancel(Player player) {
+        latestSearch.remove(player.getUniqueId());
+    }
+    
+    private void run(Player player, long searchId, ItemRegistry registry, String searchTerm) {
+        UUID playerId = player.getUniqueId();
+        SearchResults results;
+        try {
+            results = SearchResults.compute(registry, searchTerm, () -> !isLatest(playerId, searchId));
+        } catch (RuntimeException e) {
+            plugin.getLogger().log(Level.WARNING, "Search for '" + searchTerm + "' failed", e);
+            latestSearch.remove(playerId, searchId);
+            Bukkit.getScheduler().runTask(plugin, () ->
+                    player.sendMessage(ChatColor.RED + "The search failed, please try again."));
+            return;
+        }
+        if (results == null || !plugin.isEnabled()) return;
+        
+        Bukkit.getScheduler().runTask(plugin, () -> {
+            // A newer search may have started while this one was finishing
+            if (!latestSearch.remove(playerId, searchId) || !player.isOnline()) return;
+            new SearchResultsMenu(plugin, player, results).open();
+        });
+    }
+    
+    private boolean isLatest(UUID playerId, long searchId) {
+        Long latest = latestSearch.get(playerId);
+        return latest != null && latest == searchId;
+    }
+}
@@ -0,0 +1,132 @@
+package com.yrhv.coreitems.gui.util;
+
+import com.yrhv.coreitems.CoreItems;
+import org.bukkit.Bukkit;
+import org.bukkit.ChatColor;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.AsyncPlayerChatEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Asks players to type something into chat, for searches and other menu input.
+ * One instance is registered at startup and serves every prompt. Open prompts are kept in a
+ * concurrent map read from the async chat thread, and a single repeating task times out the
+ * prompts nobody answered. A player has at most one open prompt; a new one replaces it.
+ */
+public class ChatPromptManager implements Listener {
+    
+    private static final long TIMEOUT_MILLIS = 30000;
+    private static final long SWEEP_PERIOD_TICKS = 20;
+    
+    /**
+     * An open prompt
+     */
+    private static final class Prompt {
+        private final String name;
+        private final long expiresAt;
+        private final Consumer<String> onInput;
+        private final Runnable onCancel;
+        
+        private Prompt(String name, long expiresAt, Consumer<String> onInput, Runnable onCancel) {
+            this.name = name;
+            this.expiresAt = expiresAt;
+            this.onInput = onInput;
+            this.onCancel = onCancel;
+        }
+    }
+    
+    private final CoreItems plugin;
+    private final Map<UUID, Prompt> prompts = new ConcurrentHashMap<>();
+    
+    /**
+     * Creates the prompt manager
+     * 
+     * @param plugin The CoreItems plugin instance
+     */
+    public ChatPromptManager(CoreItems plugin) {
+        this.plugin = plugin;
+    }
+    
+    /**
+     * Registers the chat listener and starts timing out prompts. Call once on enable.
+     */
+    public void start() {
+        plugin.getServer().getPluginManager().registerEvents(this, plugin);
+        Bukkit.getScheduler().runTaskTimer(plugin, this::sweepExpired, SWEEP_PERIOD_TICKS, SWEEP_PERIOD_TICKS);
+    }
+    
+    /**
+     * Waits for the next chat message of a player. The message is not sent to chat.
+     * Typing 'cancel', or not answering within 30 seconds, cancels the prompt instead.
+     * The caller sends the question itself.
+     * 
+     * @param player The player to ask
+     * @param name What is asked for, used in the cancel and timeout messages, e.g. "Search"
+     * @param onInput Receives the message, on the async chat thread
+     * @param onCancel Called on the main thread when the prompt is cancelled or times out
+     */
+    public void prompt(Player player, String name, Consumer<String> onInput, Runnable onCancel) {
+        prompts.put(player.getUniqueId(), new Prompt(name, System.currentTimeMillis() + TIMEOUT_MILLIS, onInput, onCancel));
+    }
+    
+    /**
+     * Times out the prompts nobody answered
+     */
+    private void sweepExpired() {
+        if (prompts.isEmpty()) return;
+        
+        long now = System.currentTimeMillis();
+        for (Map.Entry<UUID, Prompt> entry : prompts.entrySet()) {
+            Prompt prompt = entry.getValue();
+            
+            // Only time out if the chat thread didn't take the prompt in the meantime
+            if (prompt.expiresAt <= now && prompts.remove(entry.getKey(), prompt)) {
+                Player player = Bukkit.getPlayer(entry.getKey());
+                if (player != null) {
+                    prompt.onCancel.run();
+                    player.sendMessage(ChatColor.RED + prompt.name + " timed out. Please try again.");
+                }
+            }
+        }
+    }
+    
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void onPlayerChat(AsyncPlayerChatEvent event) {
+        Player player = event.getPlayer();
+        
+        // Removing the prompt makes sure it is answered only once
+        Prompt prompt = prompts.remove(player.getUniqueId());
+        if (prompt == null) {
+            return;
+        }
+        event.setCancelled(true); // Don't send the answer to chat
+        
+        String message = event.getMessage();
+        
+        // Handle cancel request
+        if (message.equalsIgnoreCase("cancel")) {
+            // Must run on the main thread
+            Bukkit.getScheduler().runTask(plugin, () -> {
+                if (!player.isOnline()) return;
+                prompt.onCancel.run();
+                player.sendMessage(ChatColor.YELLOW + prompt.name + " cancelled.");
+            });
+            return;
+        }
+        
+        prompt.onInput.accept(message);
+    }
+    
+    @EventHandler
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        prompts.remove(event.getPlayer().getUniqueId());
+    }
+}
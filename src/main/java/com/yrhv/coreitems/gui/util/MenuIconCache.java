@@ -0,0 +1,136 @@
+package com.yrhv.coreitems.gui.util;
+
+import com.yrhv.coreitems.give.model.CustomItem;
+import com.yrhv.coreitems.namespace.model.ItemEntry;
+import com.yrhv.coreitems.namespace.model.ItemNamespace;
+import com.yrhv.coreitems.namespace.model.ItemRegistry;
+import org.bukkit.ChatColor;
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Fully decorated menu icons for items and namespaces, built once and shared by all menus.
+ * The cache follows the registry generation. Item icons are keyed by catalog entry, and a
+ * reload keeps the entries of unchanged items, so after a reload only new or changed items
+ * get new icons. Namespace icons are rebuilt after every reload because their item counts
+ * may have changed. Menus put the returned stacks into slots as they are; the inventory
+ * copies them, so they must not be modified. Main thread only.
+ */
+public class MenuIconCache {
+    
+    private long generation = -1;
+    private final Map<ItemEntry, ItemStack> itemIcons = new IdentityHashMap<>();
+    private final Map<String, ItemStack> namespaceIcons = new HashMap<>();
+    
+    /**
+     * Gets the menu icon of an item: the item itself plus the click hints
+     * 
+     * @param registry The registry snapshot the menu shows
+     * @param entry The catalog entry of the item
+     * @return The icon, or null if the item could not be built
+     */
+    public ItemStack getItemIcon(ItemRegistry registry, ItemEntry entry) {
+        if (!isCurrent(registry)) {
+            return createItemIcon(entry); // Menu opened before the last reload, don't cache
+        }
+        
+        ItemStack icon = itemIcons.get(entry);
+        if (icon == null) {
+            icon = createItemIcon(entry);
+            if (icon != null) {
+                itemIcons.put(entry, icon);
+            }
+        }
+        return icon;
+    }
+    
+    /**
+     * Gets the menu icon of a namespace
+     * 
+     * @param registry The registry snapshot the menu shows
+     * @param namespaceName The namespace name as listed in the menu
+     * @return The icon
+     */
+    public ItemStack getNamespaceIcon(ItemRegistry registry, String namespaceName) {
+        if (!isCurrent(registry)) {
+            return createNamespaceIcon(registry, namespaceName);
+        }
+        return namespaceIcons.computeIfAbsent(namespaceName, name -> createNamespaceIcon(registry, name));
+    }
+    
+    /**
+     * Moves the cache to a newer registry, keeping the icons of entries the new registry still uses
+     * 
+     * @return False if the registry is older than the cached icons
+     */
+    private boolean isCurrent(ItemRegistry registry) {
+        if (registry.getGeneration() > generation) {
+            if (!itemIcons.isEmpty()) {
+                Map<ItemEntry, ItemStack> kept = new IdentityHashMap<>();
+                for (ItemNamespace namespace : registry.getNamespaces().values()) {
+                    for (ItemEntry entry : namespace.getEntries()) {
+                        ItemStack icon = itemIcons.get(entry);
+                        if (icon != null) {
+                            kept.put(entry, icon);
+                        }
+                    }
+                }
+                itemIcons.clear();
+                itemIcons.putAll(kept);
+            }
+            namespaceIcons.clear();
+            generation = registry.getGeneration();
+        }
+        return registry.getGeneration() == generation;
+    }
+    
+    private static ItemStack createItemIcon(ItemEntry entry) {
+        CustomItem customItem = entry.get();
+        if (customItem == null) {
+            return null;
+        }
+        
+        // Create an actual item stack representation
+        ItemStack itemStack = customItem.toItemStack();
+        ItemMeta meta = itemStack.getItemMeta();
+        
+        if (meta != null) {
+            // Add additional lore for the GUI
+            List<String> lore = meta.hasLore() ? meta.getLore() : new ArrayList<>();
+            if (lore == null) lore = new ArrayList<>();
+            
+            lore.add("");
+            lore.add(ChatColor.YELLOW + "Left-click: Get 1 item");
+            lore.add(ChatColor.YELLOW + "Right-click: Get a stack (64)");
+            
+            meta.setLore(lore);
+            itemStack.setItemMeta(meta);
+        }
+        return itemStack;
+    }
+    
+    private static ItemStack createNamespaceIcon(ItemRegistry registry, String namespaceName) {
+        // Get the number of items in this namespace
+        ItemNamespace namespace = registry.getNamespace(namespaceName);
+        int itemCount = namespace != null ? namespace.getItemCount() : 0;
+        
+        ItemStack icon = new ItemStack(Material.CHEST, 1);
+        ItemMeta meta = icon.getItemMeta();
+        if (meta != null) {
+            meta.setDisplayName(ChatColor.GOLD + namespaceName);
+            meta.setLore(Arrays.asList(
+                    ChatColor.GRAY + "Contains " + itemCount + " custom items",
+                    ChatColor.YELLOW + "Click to view items"));
+            icon.setItemMeta(meta);
+        }
+        return icon;
+    }
+}
@@ -45,9 +45,11 @@ public class MenuListener implements Listener {
             if (event.getInventory().getHolder() instanceof Menu) {
                 plugin.getMenuManager().unregisterMenu(player);
                 
-                // Scan and save player inventory when they close a menu
-                // This replaces per-click scanning for better performance
-                plugin.getPlayerDataManager().onGuiItemTake(player);
+                // Only rescan if items were taken, browsing alone doesn't change the inventory.
+                // Moving to another menu also closes this one, the rescan is delayed and coalesced.
+                if (plugin.getMenuManager().consumeItemsTaken(player)) {
+                    plugin.getPlayerDataManager().markDirty(player);
+                }
             }
         }
     }
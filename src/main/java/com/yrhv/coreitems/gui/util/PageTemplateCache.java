@@ -0,0 +1,56 @@
+package com.yrhv.coreitems.gui.util;
+
+import com.yrhv.coreitems.CoreItems;
+import com.yrhv.coreitems.namespace.model.ItemRegistry;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Pre-rendered menu pages shared by every viewer.
+ * A page that shows the same thing to everyone (border, navigation and icons) is rendered
+ * once into a slot array, and opening it is a single setContents from that array. Templates
+ * are dropped when the registry generation or the gui settings change, and rendered again
+ * the next time they are opened. Templates are never modified after rendering; the inventory
+ * copies the stacks it is given. Main thread only.
+ */
+public class PageTemplateCache {
+    
+    private final CoreItems plugin;
+    private long generation = -1;
+    private String borderItem;
+    private final Map<String, ItemStack[]> templates = new HashMap<>();
+    
+    /**
+     * Creates an empty template cache
+     * 
+     * @param plugin The CoreItems plugin instance
+     */
+    public PageTemplateCache(CoreItems plugin) {
+        this.plugin = plugin;
+    }
+    
+    /**
+     * Gets the template of a page, rendering it if there is none yet
+     * 
+     * @param registry The registry snapshot the menu shows
+     * @param key Identifies the page, including the page number
+     * @param renderer Renders the page contents
+     * @return The page contents, which must not be modified
+     */
+    public ItemStack[] getTemplate(ItemRegistry registry, String key, Supplier<ItemStack[]> renderer) {
+        String currentBorder = plugin.getConfig().getString("gui.border-item", "BLACK_STAINED_GLASS_PANE");
+        if (registry.getGeneration() > generation || !currentBorder.equals(borderItem)) {
+            templates.clear();
+            generation = Math.max(generation, registry.getGeneration());
+            borderItem = currentBorder;
+        }
+        
+        if (registry.getGeneration() < generation) {
+            return renderer.get(); // Menu opened before the last reload, don't cache
+        }
+        return templates.computeIfAbsent(key, k -> renderer.get());
+    }
+}
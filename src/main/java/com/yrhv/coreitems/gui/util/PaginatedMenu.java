@@ -41,6 +41,27 @@ public abstract class PaginatedMenu extends Menu {
      */
     protected abstract boolean isContentSlot(int slot);
     
+    /**
+     * Get the slot of the n-th content position on a page, skipping the border columns
+     * 
+     * @param position The position on the page, starting at 0
+     * @return The slot index
+     */
+    protected int getContentSlot(int position) {
+        return getFirstContentSlot() + (position / 7) * 9 + position % 7;
+    }
+    
+    /**
+     * Get the position on the page of a content slot
+     * 
+     * @param slot A slot for which {@link #isContentSlot(int)} is true
+     * @return The position on the page, starting at 0
+     */
+    protected int getContentIndex(int slot) {
+        int offset = slot - getFirstContentSlot();
+        return (offset / 9) * 7 + offset % 9;
+    }
+    
     /**
      * Check if there is a next page
      * 
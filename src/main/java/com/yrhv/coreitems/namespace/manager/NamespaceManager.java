@@ -2,27 +2,66 @@ package com.yrhv.coreitems.namespace.manager;
 
 import com.yrhv.coreitems.give.model.CustomItem;
 import com.yrhv.coreitems.namespace.model.ItemNamespace;
+import com.yrhv.coreitems.namespace.model.ItemOrdering;
+import com.yrhv.coreitems.namespace.model.ItemRegistry;
+import com.yrhv.coreitems.namespace.model.RegistryDiff;
+import com.yrhv.coreitems.namespace.util.LoadDiagnostics;
 import com.yrhv.coreitems.namespace.util.NamespaceLoader;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.plugin.java.JavaPlugin;
 
 import java.io.File;
-import java.util.Collections;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 
 /**
- * Manages all item namespaces
+ * Manages all item namespaces.
+ * The loaded catalog is held as an immutable {@link ItemRegistry} behind a single volatile
+ * reference: reads never lock, and a reload builds a complete new snapshot before swapping it in.
  */
 public class NamespaceManager {
     
     private final JavaPlugin plugin;
     private final File namespacesDir;
-    private final Map<String, ItemNamespace> namespaces;
+    private volatile ItemRegistry registry = ItemRegistry.EMPTY;
+    private final AtomicLong generationCounter = new AtomicLong();
     private final NamespaceLoader namespaceLoader;
+    private volatile ExecutorService parseExecutor;
+    private int parseThreads; // Size of parseExecutor; only used on the main thread
+    private NamespaceWatcher watcher;
+    
+    // Told about every catalog change, on the main thread
+    private final List<Consumer<RegistryDiff>> registryListeners = new ArrayList<>();
+    
+    // Parsed files of every loaded namespace, by lowercase namespace name; only used on the main thread
+    private Map<String, NavigableMap<String, NamespaceLoader.ParsedFile>> loadedFiles = new HashMap<>();
+    
+    // Watcher changes that arrive while a full reload runs are held back until it is published,
+    // otherwise the reload would replace them with files it parsed before the change
+    private final Set<Path> deferredChanges = new LinkedHashSet<>();
+    private boolean fullLoadRunning; // Guarded by deferredChanges
     
     /**
      * Creates a new namespace manager
@@ -32,8 +71,8 @@ public class NamespaceManager {
     public NamespaceManager(JavaPlugin plugin) {
         this.plugin = plugin;
         this.namespacesDir = new File(plugin.getDataFolder(), "customs");
-        this.namespaces = new HashMap<>();
         this.namespaceLoader = new NamespaceLoader(plugin);
+        updateParseExecutor();
         
         // Ensure directory exists
         if (!namespacesDir.exists()) {
@@ -42,41 +81,467 @@ public class NamespaceManager {
     }
     
     /**
-     * Loads all available namespaces
+     * A full load of every namespace: the parse jobs that were submitted, and everything
+     * needed to finish the load once they are done
+     */
+    private static class FullLoad {
+        private final long start = System.nanoTime();
+        private final boolean cacheEnabled;
+        
+        // False if the customs directory has no namespace directories at all
+        private boolean hasDirectories;
+        private int fileCount;
+        private final Map<File, Map<String, Future<NamespaceLoader.ParsedFile>>> pending = new LinkedHashMap<>();
+        
+        private FullLoad(boolean cacheEnabled) {
+            this.cacheEnabled = cacheEnabled;
+        }
+    }
+    
+    /**
+     * Loads all available namespaces.
+     * Every .yml file of every namespace directory (including subfolders) is parsed in parallel
+     * on worker threads; only the registry-dependent resolution, merging the files of each
+     * namespace and the final swap happen on this (main) thread.
      */
     public void loadNamespaces() {
-        // Clear any existing namespaces
-        namespaces.clear();
+        FullLoad load = startLoad(configureLoader());
+        completeLoad(load);
+    }
+    
+    /**
+     * Loads all namespaces without blocking the main thread.
+     * Files are listed and parsed in the background while the server keeps ticking; once all
+     * of them are parsed, the new catalog is finished and swapped in on the main thread in one
+     * step, so lookups see either the old or the new catalog and never a mix of both.
+     * Must be called on the main thread.
+     * 
+     * @param progress Receives progress messages, on the main thread
+     * @param whenDone Called on the main thread when the load is finished, with false if it failed
+     *                 and the previous catalog is still in place
+     */
+    public void loadNamespacesAsync(Consumer<String> progress, Consumer<Boolean> whenDone) {
+        boolean cacheEnabled = configureLoader();
+        synchronized (deferredChanges) {
+            fullLoadRunning = true;
+        }
+        
+        plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
+            FullLoad load;
+            try {
+                load = startLoad(cacheEnabled);
+                awaitParsed(load, message -> runOnMainThread(() -> progress.accept(message)));
+            } catch (Exception e) {
+                plugin.getLogger().log(Level.SEVERE, "Failed to reload namespaces", e);
+                runOnMainThread(() -> {
+                    applyDeferredChanges();
+                    progress.accept("Failed to reload namespaces: " + e.getMessage());
+                    whenDone.accept(false);
+                });
+                return;
+            }
+            
+            runOnMainThread(() -> {
+                boolean success = false;
+                try {
+                    completeLoad(load);
+                    success = true;
+                    ItemRegistry current = registry;
+                    int items = 0;
+                    for (ItemNamespace namespace : current.getNamespaces().values()) {
+                        items += namespace.getItemCount();
+                    }
+                    progress.accept("Loaded " + current.getNamespaces().size() + " namespaces with " + items + " items");
+                } catch (Exception e) {
+                    plugin.getLogger().log(Level.SEVERE, "Failed to reload namespaces", e);
+                    progress.accept("Failed to reload namespaces: " + e.getMessage());
+                } finally {
+                    applyDeferredChanges();
+                    whenDone.accept(success);
+                }
+            });
+        });
+    }
+    
+    /**
+     * Ends a full reload and reloads the files the watcher reported while it ran.
+     * Must be called on the main thread, after the reload was published or has failed.
+     */
+    private void applyDeferredChanges() {
+        List<Path> paths;
+        synchronized (deferredChanges) {
+            fullLoadRunning = false;
+            paths = new ArrayList<>(deferredChanges);
+            deferredChanges.clear();
+        }
+        
+        if (!paths.isEmpty() && plugin.isEnabled()) {
+            plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> reloadChangedFiles(paths));
+        }
+    }
+    
+    private void runOnMainThread(Runnable task) {
+        if (plugin.isEnabled()) {
+            plugin.getServer().getScheduler().runTask(plugin, task);
+        }
+    }
+    
+    /**
+     * Applies the loader settings of the current config. Must be called on the main thread.
+     * 
+     * @return True if the namespace cache is enabled
+     */
+    private boolean configureLoader() {
+        boolean cacheEnabled = plugin.getConfig().getBoolean("namespaces.cache.enabled", true);
+        namespaceLoader.setCacheEnabled(cacheEnabled);
+        long streamingThresholdKb = plugin.getConfig().getLong("namespaces.streaming-threshold-kb", 1024);
+        namespaceLoader.setStreamingThreshold(streamingThresholdKb < 0 ? -1 : streamingThresholdKb * 1024);
+        namespaceLoader.setLazyNamespaces(plugin.getConfig().getStringList("namespaces.lazy"));
+        updateParseExecutor();
+        return cacheEnabled;
+    }
+    
+    /**
+     * Creates the parse worker pool, or replaces it when the configured size changed.
+     * Jobs already submitted to a replaced pool still run to completion.
+     */
+    private void updateParseExecutor() {
+        int threads = Math.max(1, plugin.getConfig().getInt("namespaces.parse-threads",
+                Math.min(4, Runtime.getRuntime().availableProcessors())));
+        if (parseExecutor != null && threads == parseThreads) return;
+        
+        AtomicInteger threadNumber = new AtomicInteger();
+        ExecutorService previous = parseExecutor;
+        parseExecutor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "CoreItems-Parse-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        parseThreads = threads;
+        if (previous != null) {
+            previous.shutdown();
+        }
+    }
+    
+    /**
+     * Lists the files of every namespace directory and submits them to the parse worker pool.
+     * Safe to call from any thread.
+     */
+    private FullLoad startLoad(boolean cacheEnabled) {
+        FullLoad load = new FullLoad(cacheEnabled);
         
         // Load all namespace directories
         File[] dirs = namespacesDir.listFiles(File::isDirectory);
         if (dirs == null || dirs.length == 0) {
+            return load;
+        }
+        load.hasDirectories = true;
+        
+        // Parse every file of every namespace on the worker pool
+        for (File dir : dirs) {
+            String namespaceName = dir.getName();
+            List<String> files;
+            try {
+                files = NamespaceLoader.listNamespaceFiles(dir);
+            } catch (IOException e) {
+                plugin.getLogger().log(Level.SEVERE, "Failed to list files of namespace: " + namespaceName, e);
+                continue;
+            }
+            
+            if (files.isEmpty()) {
+                plugin.getLogger().warning("Namespace directory '" + namespaceName + "' does not contain any .yml files");
+                continue;
+            }
+            
+            Map<String, Future<NamespaceLoader.ParsedFile>> futures = new LinkedHashMap<>();
+            for (String relativePath : files) {
+                futures.put(relativePath, parseExecutor.submit(() -> namespaceLoader.parseFile(namespaceName, dir, relativePath)));
+            }
+            load.pending.put(dir, futures);
+            load.fileCount += files.size();
+        }
+        return load;
+    }
+    
+    /**
+     * Waits until every file of a load is parsed, reporting progress about every quarter.
+     * Failed files are left to {@link #completeLoad}, which reports them.
+     */
+    private void awaitParsed(FullLoad load, Consumer<String> progress) throws InterruptedException {
+        progress.accept("Parsing " + load.fileCount + " files in " + load.pending.size() + " namespaces...");
+        int done = 0;
+        int reported = 0;
+        for (Map<String, Future<NamespaceLoader.ParsedFile>> futures : load.pending.values()) {
+            for (Future<NamespaceLoader.ParsedFile> future : futures.values()) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    // Reported when the load is completed
+                }
+                
+                int quarter = ++done * 4 / load.fileCount;
+                if (quarter > reported && done < load.fileCount) {
+                    reported = quarter;
+                    progress.accept("Parsed " + done + "/" + load.fileCount + " files");
+                }
+            }
+        }
+    }
+    
+    /**
+     * Resolves and merges the parsed files of a load and publishes the new registry.
+     * Waits for parse jobs that are still running. Must be called on the main thread.
+     */
+    private void completeLoad(FullLoad load) {
+        if (!load.hasDirectories) {
             // Create default namespace if none exist
+            loadedFiles = new HashMap<>();
+            publish(new HashMap<>());
             createDefaultNamespace();
             return;
         }
         
-        // Load each namespace
-        for (File dir : dirs) {
+        // Collect results in directory order and finish them here
+        Map<String, ItemNamespace> loaded = new HashMap<>();
+        Map<String, NavigableMap<String, NamespaceLoader.ParsedFile>> files = new HashMap<>();
+        Set<String> cacheKeys = new HashSet<>();
+        LoadDiagnostics diagnostics = new LoadDiagnostics();
+        for (Map.Entry<File, Map<String, Future<NamespaceLoader.ParsedFile>>> entry : load.pending.entrySet()) {
+            File dir = entry.getKey();
             String namespaceName = dir.getName();
-            File configFile = new File(dir, "customs.yml");
+            NavigableMap<String, NamespaceLoader.ParsedFile> parsedFiles = new TreeMap<>(NamespaceLoader.FILE_ORDER);
+            double parseMillis = 0;
+            int cached = 0;
+            
+            for (Map.Entry<String, Future<NamespaceLoader.ParsedFile>> file : entry.getValue().entrySet()) {
+                try {
+                    NamespaceLoader.ParsedFile parsed = file.getValue().get();
+                    namespaceLoader.resolveFile(parsed);
+                    diagnostics.addAll(parsed.getDiagnostics());
+                    parsedFiles.put(file.getKey(), parsed);
+                    cacheKeys.add(namespaceName.toLowerCase() + "/" + file.getKey());
+                    parseMillis += parsed.getParseMillis();
+                    if (parsed.isFromCache()) cached++;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    plugin.getLogger().log(Level.SEVERE, "Interrupted while loading namespace: " + namespaceName, e);
+                } catch (Exception e) {
+                    Throwable cause = e instanceof ExecutionException && e.getCause() != null ? e.getCause() : e;
+                    diagnostics.error(namespaceName + "/" + file.getKey(), null, "Failed to load namespace file: " + cause.getMessage());
+                }
+            }
             
-            if (!configFile.exists()) {
-                plugin.getLogger().warning("Namespace directory '" + namespaceName + "' does not contain a customs.yml file");
+            if (parsedFiles.isEmpty()) continue;
+            
+            ItemNamespace namespace = namespaceLoader.mergeFiles(namespaceName, dir, parsedFiles.values(), diagnostics);
+            loaded.put(namespaceName.toLowerCase(), namespace);
+            files.put(namespaceName.toLowerCase(), parsedFiles);
+            plugin.getLogger().info("Loaded namespace: " + namespaceName + " with " + namespace.getItemCount()
+                    + " items from " + parsedFiles.size() + " files (" + cached + " cached, "
+                    + String.format("%.1f", parseMillis) + " ms parse time)");
+        }
+        
+        // Publish the complete snapshot at once
+        loadedFiles = files;
+        publish(loaded);
+        
+        if (load.cacheEnabled) {
+            namespaceLoader.getCache().retainOnly(cacheKeys);
+        }
+        
+        diagnostics.report(plugin.getLogger(), "namespaces");
+        plugin.getLogger().info("Loaded " + loaded.size() + " item namespaces in "
+                + String.format("%.1f", (System.nanoTime() - load.start) / 1_000_000.0) + " ms");
+    }
+    
+    /**
+     * Files of one namespace that changed on disk, parsed off the main thread
+     */
+    private static class NamespaceChange {
+        private final String namespaceName;
+        private final File dir;
+        
+        // True if the namespace directory itself changed and every file was reparsed
+        private boolean replaceAll;
+        private final Set<String> removedPaths = new LinkedHashSet<>();
+        private final Set<String> changedFiles = new TreeSet<>(NamespaceLoader.FILE_ORDER);
+        private final Set<String> failedFiles = new HashSet<>();
+        private final Map<String, NamespaceLoader.ParsedFile> parsedFiles = new LinkedHashMap<>();
+        
+        private NamespaceChange(String namespaceName, File dir) {
+            this.namespaceName = namespaceName;
+            this.dir = dir;
+        }
+    }
+    
+    /**
+     * Reparses the given files and swaps just the affected namespaces into the registry.
+     * Only changed files are parsed again; the other files of a namespace are reused as they are.
+     * A changed namespace directory is reparsed completely, or removed if it no longer exists.
+     * Called off the main thread (by the file watcher); parsing happens on the calling thread
+     * and the swap is scheduled on the main thread. While a full reload runs, the paths are
+     * only remembered and reloaded once the full reload is published.
+     * 
+     * @param paths The changed files and directories inside the customs directory
+     */
+    public void reloadChangedFiles(Collection<Path> paths) {
+        synchronized (deferredChanges) {
+            if (fullLoadRunning) {
+                deferredChanges.addAll(paths);
+                return;
+            }
+        }
+        
+        Path root = namespacesDir.toPath();
+        Map<String, NamespaceChange> changes = new LinkedHashMap<>();
+        
+        // Group the paths by namespace
+        for (Path path : paths) {
+            Path relative = root.relativize(path);
+            if (relative.getNameCount() == 0 || relative.startsWith("..")) continue;
+            
+            String namespaceName = relative.getName(0).toString();
+            File dir = root.resolve(namespaceName).toFile();
+            NamespaceChange change = changes.computeIfAbsent(namespaceName.toLowerCase(),
+                    key -> new NamespaceChange(namespaceName, dir));
+            
+            if (relative.getNameCount() == 1) {
+                change.replaceAll = true;
                 continue;
             }
             
-            try {
-                ItemNamespace namespace = new ItemNamespace(namespaceName, configFile);
-                namespaceLoader.loadNamespace(namespace);
-                namespaces.put(namespaceName.toLowerCase(), namespace);
-                plugin.getLogger().info("Loaded namespace: " + namespaceName + " with " + namespace.getItems().size() + " items");
-            } catch (Exception e) {
-                plugin.getLogger().log(Level.SEVERE, "Failed to load namespace: " + namespaceName, e);
+            String relativePath = NamespaceLoader.relativePath(dir.toPath(), path);
+            if (Files.isRegularFile(path)) {
+                if (NamespaceLoader.isItemFile(path)) {
+                    change.changedFiles.add(relativePath);
+                }
+            } else {
+                // A deleted file or folder, or a folder that was moved in: drop what was loaded from it
+                change.removedPaths.add(relativePath);
+                if (Files.isDirectory(path)) {
+                    try {
+                        for (String file : NamespaceLoader.listNamespaceFiles(path.toFile())) {
+                            change.changedFiles.add(relativePath + "/" + file);
+                        }
+                    } catch (IOException e) {
+                        plugin.getLogger().warning("Could not list " + namespaceName + "/" + relativePath + ": " + e.getMessage());
+                    }
+                }
+            }
+        }
+        
+        for (NamespaceChange change : changes.values()) {
+            if (change.replaceAll) {
+                change.changedFiles.clear();
+                if (change.dir.isDirectory()) {
+                    try {
+                        change.changedFiles.addAll(NamespaceLoader.listNamespaceFiles(change.dir));
+                    } catch (IOException e) {
+                        plugin.getLogger().warning("Could not list files of namespace " + change.namespaceName + ": " + e.getMessage());
+                        continue;
+                    }
+                }
+            }
+            
+            for (String relativePath : change.changedFiles) {
+                try {
+                    change.parsedFiles.put(relativePath, namespaceLoader.parseFile(change.namespaceName, change.dir, relativePath));
+                } catch (Exception e) {
+                    // Most likely a half-written file, keep serving the previous version
+                    change.failedFiles.add(relativePath);
+                    plugin.getLogger().warning("Could not reload " + change.namespaceName + "/" + relativePath
+                            + ", keeping the previous version: " + e.getMessage());
+                }
             }
         }
         
-        plugin.getLogger().info("Loaded " + namespaces.size() + " item namespaces");
+        if (changes.isEmpty() || !plugin.isEnabled()) return;
+        plugin.getServer().getScheduler().runTask(plugin, () -> applyNamespaceChanges(changes));
+    }
+    
+    /**
+     * Resolves reparsed files, merges them with the unchanged files of their namespace and
+     * publishes a registry with only those namespaces replaced. Must be called on the main thread.
+     */
+    private void applyNamespaceChanges(Map<String, NamespaceChange> changes) {
+        Map<String, ItemNamespace> updated = new HashMap<>(registry.getNamespaces());
+        Map<String, NavigableMap<String, NamespaceLoader.ParsedFile>> files = new HashMap<>(loadedFiles);
+        LoadDiagnostics diagnostics = new LoadDiagnostics();
+        boolean modified = false;
+        
+        for (Map.Entry<String, NamespaceChange> entry : changes.entrySet()) {
+            String key = entry.getKey();
+            NamespaceChange change = entry.getValue();
+            NavigableMap<String, NamespaceLoader.ParsedFile> previous = files.getOrDefault(key, new TreeMap<>(NamespaceLoader.FILE_ORDER));
+            NavigableMap<String, NamespaceLoader.ParsedFile> next = new TreeMap<>(NamespaceLoader.FILE_ORDER);
+            
+            if (change.replaceAll) {
+                // Files that failed to parse keep their previous version
+                for (String failed : change.failedFiles) {
+                    if (previous.containsKey(failed)) {
+                        next.put(failed, previous.get(failed));
+                    }
+                }
+            } else {
+                next.putAll(previous);
+                for (String removed : change.removedPaths) {
+                    next.keySet().removeIf(path -> path.equals(removed) || path.startsWith(removed + "/"));
+                }
+            }
+            
+            for (Map.Entry<String, NamespaceLoader.ParsedFile> parsed : change.parsedFiles.entrySet()) {
+                namespaceLoader.resolveFile(parsed.getValue());
+                diagnostics.addAll(parsed.getValue().getDiagnostics());
+                next.put(parsed.getKey(), parsed.getValue());
+            }
+            
+            if (!change.replaceAll && change.parsedFiles.isEmpty() && next.size() == previous.size()) continue;
+            
+            if (next.isEmpty()) {
+                files.remove(key);
+                if (updated.remove(key) != null) {
+                    plugin.getLogger().info("Removed namespace: " + change.namespaceName);
+                    modified = true;
+                }
+                continue;
+            }
+            
+            ItemNamespace namespace = namespaceLoader.mergeFiles(change.namespaceName, change.dir, next.values(), diagnostics);
+            boolean added = updated.put(key, namespace) == null;
+            files.put(key, next);
+            plugin.getLogger().info((added ? "Added" : "Reloaded") + " namespace: " + change.namespaceName
+                    + " with " + namespace.getItemCount() + " items ("
+                    + (change.replaceAll ? "all files" : "changed: " + String.join(", ", change.parsedFiles.keySet())) + ")");
+            modified = true;
+        }
+        
+        diagnostics.report(plugin.getLogger(), "changed namespace files");
+        if (modified) {
+            loadedFiles = files;
+            publish(updated);
+        }
+    }
+    
+    /**
+     * Starts or stops the namespace file watcher according to the current config
+     */
+    public void updateWatcher() {
+        if (watcher != null) {
+            watcher.stop();
+            watcher = null;
+        }
+        
+        if (!plugin.getConfig().getBoolean("namespaces.hot-reload.enabled", true)) return;
+        
+        NamespaceWatcher newWatcher = new NamespaceWatcher(plugin, this, namespacesDir.toPath(),
+                plugin.getConfig().getLong("namespaces.hot-reload.debounce-ms", 500));
+        try {
+            newWatcher.start();
+            watcher = newWatcher;
+        } catch (IOException e) {
+            newWatcher.stop();
+            plugin.getLogger().log(Level.WARNING, "Could not watch namespace files, hot reload is disabled", e);
+        }
     }
     
     /**
@@ -94,13 +559,82 @@ public class NamespaceManager {
         }
     }
     
+    /**
+     * Reads the order of namespaces and items from the config
+     */
+    private ItemOrdering loadOrdering() {
+        return new ItemOrdering(
+                ItemOrdering.SortKey.parse(plugin.getConfig().getString("sorting.namespaces"), ItemOrdering.SortKey.ID),
+                ItemOrdering.SortKey.parse(plugin.getConfig().getString("sorting.items"), ItemOrdering.SortKey.CUSTOM),
+                plugin.getConfig().getStringList("sorting.custom-order"));
+    }
+    
+    /**
+     * Builds a new registry snapshot from the given namespaces and makes it current.
+     * Unchanged items keep their existing instances, the changes are logged and passed
+     * on to the registry listeners.
+     * 
+     * @param namespaces Map of namespace names to fully loaded namespaces
+     * @return The new registry
+     */
+    private ItemRegistry publish(Map<String, ItemNamespace> namespaces) {
+        ItemRegistry previous = registry;
+        RegistryDiff diff = RegistryDiff.compute(previous, namespaces);
+        ItemRegistry snapshot = new ItemRegistry(generationCounter.incrementAndGet(), namespaces, loadOrdering());
+        registry = snapshot;
+        
+        // Build the search indexes in the background so the first search doesn't have to wait for them
+        if (!namespaces.isEmpty()) {
+            parseExecutor.execute(snapshot::getSearchIndex);
+            parseExecutor.execute(snapshot::getFuzzyIndex);
+        }
+        
+        if (previous != ItemRegistry.EMPTY) {
+            List<String> summary = diff.getSummary();
+            plugin.getLogger().info("Catalog changes: " + summary.get(0));
+            for (String line : summary.subList(1, summary.size())) {
+                plugin.getLogger().info(line);
+            }
+        }
+        
+        for (Consumer<RegistryDiff> listener : registryListeners) {
+            try {
+                listener.accept(diff);
+            } catch (Exception e) {
+                plugin.getLogger().log(Level.WARNING, "Error while applying catalog changes", e);
+            }
+        }
+        return snapshot;
+    }
+    
+    /**
+     * Registers a callback that is told about every catalog change, right after the new
+     * registry has been published. Callbacks run on the main thread.
+     * 
+     * @param listener Receives the differences to the previous catalog
+     */
+    public void addRegistryListener(Consumer<RegistryDiff> listener) {
+        registryListeners.add(listener);
+    }
+    
+    /**
+     * Gets the current registry snapshot.
+     * Callers that do several lookups should hold on to one snapshot instead of calling
+     * this repeatedly, so all lookups see the same catalog.
+     * 
+     * @return The current registry
+     */
+    public ItemRegistry getRegistry() {
+        return registry;
+    }
+    
     /**
      * Gets all available namespaces
      * 
      * @return Set of namespace names
      */
     public Set<String> getNamespaceNames() {
-        return Collections.unmodifiableSet(namespaces.keySet());
+        return registry.getNamespaceNames();
     }
     
     /**
@@ -110,7 +644,7 @@ public class NamespaceManager {
      * @return The namespace, or null if it doesn't exist
      */
     public ItemNamespace getNamespace(String namespaceName) {
-        return namespaces.get(namespaceName.toLowerCase());
+        return registry.getNamespace(namespaceName);
     }
     
     /**
@@ -119,7 +653,7 @@ public class NamespaceManager {
      * @return Map of namespace names to namespaces
      */
     public Map<String, ItemNamespace> getNamespaces() {
-        return Collections.unmodifiableMap(namespaces);
+        return registry.getNamespaces();
     }
     
     /**
@@ -130,12 +664,18 @@ public class NamespaceManager {
      * @return The CustomItem or null if not found
      */
     public CustomItem getItem(String namespaceName, String itemId) {
-        ItemNamespace namespace = getNamespace(namespaceName);
-        if (namespace == null) {
-            return null;
+        return registry.getItem(namespaceName, itemId);
+    }
+    
+    /**
+     * Stops the file watcher and the parse worker pool
+     */
+    public void shutdown() {
+        if (watcher != null) {
+            watcher.stop();
+            watcher = null;
         }
-        
-        return namespace.getItem(itemId);
+        parseExecutor.shutdownNow();
     }
     
     /**
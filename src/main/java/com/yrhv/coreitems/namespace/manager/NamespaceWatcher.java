@@ -0,0 +1,217 @@
+package com.yrhv.coreitems.namespace.manager;
+
+import com.yrhv.coreitems.namespace.util.NamespaceLoader;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.logging.Level;
+
+/**
+ * Watches the customs directory and reloads single namespace files when they change.
+ * Events are collected per file and only acted on once the file has been quiet for the
+ * debounce time, so an editor saving several times in a row causes one reload.
+ */
+public class NamespaceWatcher implements Runnable {
+    
+    private final JavaPlugin plugin;
+    private final NamespaceManager namespaceManager;
+    private final Path root;
+    private final long debounceNanos;
+    
+    // Only touched by the watcher thread
+    private final Map<WatchKey, Path> watchedDirs = new HashMap<>();
+    private final Map<Path, Long> pendingChanges = new HashMap<>();
+    
+    private WatchService watchService;
+    private Thread thread;
+    private volatile boolean running;
+    
+    /**
+     * Creates a watcher for the customs directory
+     * 
+     * @param plugin The JavaPlugin instance
+     * @param namespaceManager The namespace manager to reload namespaces in
+     * @param root The customs directory
+     * @param debounceMillis How long a namespace must be unchanged before it is reloaded
+     */
+    public NamespaceWatcher(JavaPlugin plugin, NamespaceManager namespaceManager, Path root, long debounceMillis) {
+        this.plugin = plugin;
+        this.namespaceManager = namespaceManager;
+        this.root = root;
+        this.debounceNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(50, debounceMillis));
+    }
+    
+    /**
+     * Registers the directories and starts the watcher thread
+     * 
+     * @throws IOException If the directories could not be watched
+     */
+    public void start() throws IOException {
+        watchService = root.getFileSystem().newWatchService();
+        registerAll(root);
+        
+        running = true;
+        thread = new Thread(this, "CoreItems-Watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+    
+    /**
+     * Stops the watcher thread. Changes that are still waiting for the debounce are dropped.
+     */
+    public void stop() {
+        running = false;
+        try {
+            if (watchService != null) {
+                watchService.close();
+            }
+        } catch (IOException ignored) {
+            // Closing only fails if the service is already broken
+        }
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+    
+    @Override
+    public void run() {
+        while (running) {
+            try {
+                // Block while idle, otherwise wake up in time to flush settled changes
+                WatchKey key = pendingChanges.isEmpty()
+                        ? watchService.take()
+                        : watchService.poll(debounceNanos, TimeUnit.NANOSECONDS);
+                if (key != null) {
+                    handleEvents(key);
+                }
+                flushSettledChanges();
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                break;
+            } catch (Exception e) {
+                plugin.getLogger().log(Level.WARNING, "Error while watching namespace files", e);
+            }
+        }
+    }
+    
+    /**
+     * Records which files and directories the events of a key affect
+     */
+    private void handleEvents(WatchKey key) throws IOException {
+        Path dir = watchedDirs.get(key);
+        
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                markAllChanged();
+                continue;
+            }
+            if (dir == null) continue;
+            
+            Path child = dir.resolve((Path) event.context());
+            boolean isDirectory = Files.isDirectory(child);
+            if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && isDirectory) {
+                registerAll(child);
+            }
+            
+            if (dir.equals(root)) {
+                // A namespace directory appeared or disappeared
+                markChanged(child);
+            } else if (isDirectory) {
+                // Contents of a subfolder are reported by its own key
+                if (event.kind() != StandardWatchEventKinds.ENTRY_MODIFY) {
+                    markChanged(child);
+                }
+            } else if (NamespaceLoader.isItemFile(child) || !Files.exists(child)) {
+                markChanged(child);
+            }
+        }
+        
+        if (!key.reset()) {
+            watchedDirs.remove(key);
+        }
+    }
+    
+    /**
+     * Hands files that have been quiet for the debounce time to the manager
+     */
+    private void flushSettledChanges() {
+        long now = System.nanoTime();
+        List<Path> settled = new ArrayList<>();
+        
+        Iterator<Map.Entry<Path, Long>> iterator = pendingChanges.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Path, Long> entry = iterator.next();
+            if (now - entry.getValue() >= debounceNanos) {
+                settled.add(entry.getKey());
+                iterator.remove();
+            }
+        }
+        
+        if (!settled.isEmpty()) {
+            namespaceManager.reloadChangedFiles(settled);
+        }
+    }
+    
+    private void markChanged(Path path) {
+        pendingChanges.put(path, System.nanoTime());
+    }
+    
+    /**
+     * Events were lost, so every namespace on disk or in the registry may have changed
+     */
+    private void markAllChanged() throws IOException {
+        List<String> dirNames = new ArrayList<>();
+        try (DirectoryStream<Path> dirs = Files.newDirectoryStream(root, Files::isDirectory)) {
+            for (Path dir : dirs) {
+                registerAll(dir);
+                markChanged(dir);
+                dirNames.add(dir.getFileName().toString());
+            }
+        }
+        
+        // Namespaces whose directory is gone
+        for (String namespaceName : namespaceManager.getRegistry().getNamespaceNames()) {
+            if (dirNames.stream().noneMatch(namespaceName::equalsIgnoreCase)) {
+                markChanged(root.resolve(namespaceName));
+            }
+        }
+    }
+    
+    /**
+     * Registers a directory and all of its subdirectories that are not watched yet
+     */
+    private void registerAll(Path start) throws IOException {
+        try (Stream<Path> dirs = Files.walk(start)) {
+            for (Path dir : (Iterable<Path>) dirs.filter(Files::isDirectory)::iterator) {
+                if (!watchedDirs.containsValue(dir)) {
+                    register(dir);
+                }
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+    
+    private void register(Path dir) throws IOException {
+        WatchKey key = dir.register(watchService,
+                StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_DELETE,
+                StandardWatchEventKinds.ENTRY_MODIFY);
+        watchedDirs.put(key, dir);
+    }
+}
@@ -0,0 +1,107 @@
+package com.yrhv.coreitems.namespace.model;
+
+import com.yrhv.coreitems.namespace.util.BkTree;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Typo-tolerant lookup of items and namespaces by name, for "did you mean" suggestions.
+ * Item IDs are indexed both on their own and as namespace:item, so a query finds an item
+ * whether or not it names the namespace, and whether the typo is in the namespace or the ID.
+ * Few typos are tolerated on purpose: each extra one makes a search visit much more of the tree.
+ * Immutable once built and safe to share between threads.
+ */
+public final class FuzzyItemIndex {
+    
+    private final BkTree<ItemSearchIndex.Hit> itemIds = new BkTree<>();
+    private final BkTree<ItemSearchIndex.Hit> fullItemIds = new BkTree<>();
+    private final BkTree<String> namespaces = new BkTree<>();
+    
+    /**
+     * Builds the index for a registry, see {@link ItemRegistry#getFuzzyIndex()}
+     * 
+     * @param registry The registry to index
+     */
+    FuzzyItemIndex(ItemRegistry registry) {
+        for (String namespaceName : registry.getNamespaceNames()) {
+            namespaces.add(namespaceName, namespaceName);
+        }
+        
+        for (ItemNamespace namespace : registry.getNamespaces().values()) {
+            for (ItemEntry entry : namespace.getEntries()) {
+                ItemSearchIndex.Hit hit = new ItemSearchIndex.Hit(namespace, entry, 0);
+                itemIds.add(entry.getId().toLowerCase(), hit);
+                fullItemIds.add(namespace.getFullItemId(entry.getId()).toLowerCase(), hit);
+            }
+        }
+    }
+    
+    /**
+     * Finds the items whose ID is closest to the query
+     * 
+     * @param query An item ID or namespace:item, possibly misspelled; spaces count as underscores
+     * @param limit The maximum number of items
+     * @return The closest items, closest first; the score is higher the closer the match
+     */
+    public List<ItemSearchIndex.Hit> findItems(String query, int limit) {
+        String key = normalize(query);
+        List<ItemSearchIndex.Hit> result = new ArrayList<>();
+        Set<ItemEntry> seen = new LinkedHashSet<>();
+        
+        BkTree<ItemSearchIndex.Hit> tree = key.indexOf(':') >= 0 ? fullItemIds : itemIds;
+        for (BkTree.Match<ItemSearchIndex.Hit> match : tree.search(key, tolerance(key))) {
+            for (ItemSearchIndex.Hit hit : match.getValues()) {
+                if (result.size() < limit && seen.add(hit.getEntry())) {
+                    result.add(new ItemSearchIndex.Hit(hit.getNamespace(), hit.getEntry(), 1.0f / (1 + match.getDistance())));
+                }
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * Finds the full IDs (namespace:item) of the items closest to the query
+     * 
+     * @param query An item ID or namespace:item, possibly misspelled
+     * @param limit The maximum number of IDs
+     * @return The closest item IDs, closest first
+     */
+    public List<String> suggestItems(String query, int limit) {
+        List<String> suggestions = new ArrayList<>();
+        for (ItemSearchIndex.Hit hit : findItems(query, limit)) {
+            suggestions.add(hit.getFullId());
+        }
+        return suggestions;
+    }
+    
+    /**
+     * Finds the namespace names closest to the query
+     * 
+     * @param query A namespace name, possibly misspelled
+     * @param limit The maximum number of names
+     * @return The closest names, closest first
+     */
+    public List<String> suggestNamespaces(String query, int limit) {
+        String key = normalize(query);
+        List<String> suggestions = new ArrayList<>();
+        for (BkTree.Match<String> match : namespaces.search(key, tolerance(key))) {
+            if (suggestions.size() == limit) break;
+            suggestions.add(match.getKey());
+        }
+        return suggestions;
+    }
+    
+    private static String normalize(String query) {
+        return query.trim().toLowerCase().replaceAll("\\s+", "_");
+    }
+    
+    /**
+     * How many typos a query may contain: one for short queries, two for longer ones
+     */
+    private static int tolerance(String key) {
+        return key.length() <= 5 ? 1 : 2;
+    }
+}
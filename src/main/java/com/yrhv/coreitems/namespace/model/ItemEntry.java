@@ -0,0 +1,130 @@
+package com.yrhv.coreitems.namespace.model;
+
+import com.yrhv.coreitems.give.model.CustomItem;
+import org.bukkit.Material;
+
+import java.util.function.Supplier;
+
+/**
+ * An item of a namespace, either already built or waiting to be built on first use.
+ * Lazy entries only know their ID and material until something asks for the item;
+ * the item is then built exactly once, even if several threads ask at the same time.
+ */
+public final class ItemEntry {
+    
+    private final String id;
+    private final Material material;
+    
+    // Summary of a lazy entry's config, kept so a reload can tell whether the item changed without building it
+    private final LazyDefinition definition;
+    private Supplier<CustomItem> loader;
+    private volatile CustomItem item;
+    private volatile boolean failed;
+    
+    /**
+     * Creates an entry for an item that is already built
+     * 
+     * @param item The item
+     */
+    public ItemEntry(CustomItem item) {
+        this.id = item.getId();
+        this.material = item.getMaterial();
+        this.definition = null;
+        this.item = item;
+    }
+    
+    /**
+     * Creates an entry that builds its item on first use
+     * 
+     * @param id The item ID
+     * @param material The item material, known without building the item
+     * @param definition Summary of the item config, compared on reload
+     * @param loader Builds the item, returns null if it can't be built
+     */
+    public ItemEntry(String id, Material material, LazyDefinition definition, Supplier<CustomItem> loader) {
+        this.id = id;
+        this.material = material;
+        this.definition = definition;
+        this.loader = loader;
+    }
+    
+    /**
+     * Gets the item ID as written in the config
+     * 
+     * @return The item ID
+     */
+    public String getId() {
+        return id;
+    }
+    
+    /**
+     * Gets the item material without building the item
+     * 
+     * @return The material
+     */
+    public Material getMaterial() {
+        return material;
+    }
+    
+    /**
+     * Gets the item, building it first if this is a lazy entry
+     * 
+     * @return The item, or null if it could not be built
+     */
+    public CustomItem get() {
+        CustomItem result = item;
+        if (result != null || failed) {
+            return result;
+        }
+        
+        synchronized (this) {
+            if (item == null && !failed) {
+                CustomItem built = loader.get();
+                if (built != null) {
+                    item = built;
+                } else {
+                    failed = true;
+                }
+                loader = null; // Release the file location
+            }
+            return item;
+        }
+    }
+    
+    /**
+     * Gets the config summary of a lazy entry
+     * 
+     * @return The summary, or null for entries created from a built item
+     */
+    LazyDefinition getDefinition() {
+        return definition;
+    }
+    
+    /**
+     * Checks if the item has been built
+     * 
+     * @return True if the item exists in memory
+     */
+    public boolean isMaterialized() {
+        return item != null;
+    }
+    
+    /**
+     * Checks if another entry defines the same item, ignoring the ID.
+     * Lazy entries are compared by a digest of their config, so neither needs to be built;
+     * a lazy and an eager entry are never considered the same.
+     * 
+     * @param other The other entry
+     * @return True if both entries would produce identical items
+     */
+    public boolean hasSameDefinition(ItemEntry other) {
+        if (other == this) return true;
+        if (material != other.material) return false;
+        
+        if (definition != null || other.definition != null) {
+            return definition != null && definition.equals(other.definition);
+        }
+        CustomItem mine = get();
+        return mine != null && mine.hasSameDefinition(other.get());
+    }
+}
@@ -0,0 +1,118 @@
+package com.yrhv.coreitems.namespace.model;
+
+import com.yrhv.coreitems.give.model.CustomItem;
+import org.bukkit.Material;
+import org.bukkit.util.NumberConversions;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Precomputed facets of one namespace for filtering the item browser.
+ * Bit i of every set stands for item i of {@link ItemRegistry#getSortedEntries(String)}, so
+ * applying a filter is a few bitset operations and the result is already in display order.
+ * Lazy items are read from their config summary and are not built.
+ * Immutable once built and safe to share between threads.
+ */
+public final class ItemFacets {
+    
+    private final int size;
+    private final Map<Material, BitSet> materials = new EnumMap<>(Material.class);
+    private final List<Material> materialList;
+    private final BitSet withCommand = new BitSet();
+    
+    // Custom model data of every item, -1 if it has none
+    private final int[] modelData;
+    
+    /**
+     * Builds the facets of a namespace, see {@link ItemRegistry#getFacets(String)}
+     * 
+     * @param entries The entries of the namespace in display order
+     */
+    ItemFacets(List<ItemEntry> entries) {
+        this.size = entries.size();
+        this.modelData = new int[size];
+        
+        for (int i = 0; i < size; i++) {
+            ItemEntry entry = entries.get(i);
+            materials.computeIfAbsent(entry.getMaterial(), material -> new BitSet()).set(i);
+            
+            LazyDefinition definition = entry.getDefinition();
+            if (!entry.isMaterialized() && definition != null) {
+                if (definition.hasCommand()) {
+                    withCommand.set(i);
+                }
+                modelData[i] = asModelData(definition.getCustomModelData());
+            } else {
+                CustomItem item = entry.get();
+                if (item == null) {
+                    modelData[i] = -1;
+                    continue;
+                }
+                if (item.getRightClickCommand() != null || item.getLeftClickCommand() != null) {
+                    withCommand.set(i);
+                }
+                modelData[i] = item.getCustomModelData();
+            }
+        }
+        
+        List<Material> list = new ArrayList<>(materials.keySet());
+        list.sort(Comparator.comparing(Material::name));
+        this.materialList = Collections.unmodifiableList(list);
+    }
+    
+    /**
+     * Reads custom model data the way the item parser does, so lazy items filter like built ones
+     */
+    private static int asModelData(Object value) {
+        return value != null ? NumberConversions.toInt(value) : -1;
+    }
+    
+    /**
+     * Gets the materials that occur in the namespace
+     * 
+     * @return The materials, sorted by name
+     */
+    public List<Material> getMaterials() {
+        return materialList;
+    }
+    
+    /**
+     * Selects the items a filter shows
+     * 
+     * @param filter The filter
+     * @return Positions of the shown items in the sorted entry list, in order
+     */
+    public int[] select(ItemFilter filter) {
+        BitSet selected = new BitSet(size);
+        selected.set(0, size);
+        
+        if (filter.getMaterial() != null) {
+            BitSet material = materials.get(filter.getMaterial());
+            if (material == null) return new int[0];
+            selected.and(material);
+        }
+        
+        if (filter.getHasCommand() != null) {
+            if (filter.getHasCommand()) {
+                selected.and(withCommand);
+            } else {
+                selected.andNot(withCommand);
+            }
+        }
+        
+        if (filter.hasModelDataRange()) {
+            for (int i = selected.nextSetBit(0); i >= 0; i = selected.nextSetBit(i + 1)) {
+                if (modelData[i] < 0 || modelData[i] < filter.getMinModelData() || modelData[i] > filter.getMaxModelData()) {
+                    selected.clear(i);
+                }
+            }
+        }
+        return selected.stream().toArray();
+    }
+}
@@ -0,0 +1,107 @@
+package com.yrhv.coreitems.namespace.model;
+
+import org.bukkit.Material;
+
+/**
+ * Filter of the item browser: by material, by whether an item runs a click command, and by
+ * custom model data range. Immutable; every change returns a new filter.
+ */
+public final class ItemFilter {
+    
+    /**
+     * Filter that shows every item
+     */
+    public static final ItemFilter NONE = new ItemFilter(null, null, Integer.MIN_VALUE, Integer.MAX_VALUE);
+    
+    private final Material material;
+    private final Boolean hasCommand;
+    private final int minModelData;
+    private final int maxModelData;
+    
+    private ItemFilter(Material material, Boolean hasCommand, int minModelData, int maxModelData) {
+        this.material = material;
+        this.hasCommand = hasCommand;
+        this.minModelData = minModelData;
+        this.maxModelData = maxModelData;
+    }
+    
+    /**
+     * Changes the material facet
+     * 
+     * @param material The material to show, or null for all
+     * @return A filter with the material changed
+     */
+    public ItemFilter withMaterial(Material material) {
+        return new ItemFilter(material, hasCommand, minModelData, maxModelData);
+    }
+    
+    /**
+     * Changes the command facet
+     * 
+     * @param hasCommand True for items with a click command, false for items without, null for all
+     * @return A filter with the command facet changed
+     */
+    public ItemFilter withCommand(Boolean hasCommand) {
+        return new ItemFilter(material, hasCommand, minModelData, maxModelData);
+    }
+    
+    /**
+     * Limits the items to a custom model data range
+     * 
+     * @param min The lowest custom model data to show
+     * @param max The highest custom model data to show
+     * @return A filter that only shows items with custom model data in the range
+     */
+    public ItemFilter withModelData(int min, int max) {
+        return new ItemFilter(material, hasCommand, Math.min(min, max), Math.max(min, max));
+    }
+    
+    /**
+     * Removes the custom model data range
+     * 
+     * @return A filter without the model data range
+     */
+    public ItemFilter withoutModelData() {
+        return new ItemFilter(material, hasCommand, Integer.MIN_VALUE, Integer.MAX_VALUE);
+    }
+    
+    public Material getMaterial() {
+        return material;
+    }
+    
+    public Boolean getHasCommand() {
+        return hasCommand;
+    }
+    
+    public boolean hasModelDataRange() {
+        return minModelData != Integer.MIN_VALUE || maxModelData != Integer.MAX_VALUE;
+    }
+    
+    public int getMinModelData() {
+        return minModelData;
+    }
+    
+    public int getMaxModelData() {
+        return maxModelData;
+    }
+    
+    /**
+     * Checks if the filter shows every item
+     * 
+     * @return True if nothing is filtered
+     */
+    public boolean isEmpty() {
+        return material == null && hasCommand == null && !hasModelDataRange();
+    }
+    
+    /**
+     * Gets a key that is equal for equal filters, for caching rendered pages
+     * 
+     * @return The key
+     */
+    public String getKey() {
+        return (material != null ? material.name() : "*") + "/"
+                + (hasCommand != null ? hasCommand.toString() : "*") + "/"
+                + (hasModelDataRange() ? minModelData + "-" + maxModelData : "*");
+    }
+}
@@ -1,20 +1,36 @@
 package com.yrhv.coreitems.namespace.model;
 
 import com.yrhv.coreitems.give.model.CustomItem;
+import org.bukkit.Material;
 
 import java.io.File;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
 
 /**
- * Represents a namespace for custom items
+ * Represents a namespace for custom items.
+ * A namespace is filled while it is being loaded and sealed when it becomes part of an
+ * {@link ItemRegistry}; after that it is read-only and safe to share between threads.
+ * Entries can be lazy, in which case their item is only built when first requested.
  */
 public class ItemNamespace {
     
     private final String name;
     private final File configFile;
-    private final Map<String, CustomItem> items;
+    private Map<String, ItemEntry> entries;
+    private Map<Material, List<ItemEntry>> materialIndex;
+    private final Map<String, CustomItem> itemsView = new ItemsView();
+    private boolean sealed;
     
     /**
      * Creates a new item namespace
@@ -25,7 +41,7 @@ public class ItemNamespace {
     public ItemNamespace(String name, File configFile) {
         this.name = name;
         this.configFile = configFile;
-        this.items = new HashMap<>();
+        this.entries = new LinkedHashMap<>();
     }
     
     /**
@@ -47,12 +63,85 @@ public class ItemNamespace {
     }
     
     /**
-     * Gets all items in this namespace
+     * Gets all items in this namespace.
+     * Reading a value builds that item if it is lazy; use {@link #getEntries()} or
+     * {@link #getItemIds()} when only IDs or materials are needed. Items that failed to build
+     * are not in the map, so its size and key set build every lazy item.
      * 
      * @return Map of item ID to CustomItem
      */
     public Map<String, CustomItem> getItems() {
-        return Collections.unmodifiableMap(items);
+        return itemsView;
+    }
+    
+    /**
+     * Gets all item entries without building lazy items
+     * 
+     * @return The entries in config order
+     */
+    public Collection<ItemEntry> getEntries() {
+        return Collections.unmodifiableCollection(entries.values());
+    }
+    
+    /**
+     * Gets the IDs of all items (lowercase)
+     * 
+     * @return Set of item IDs
+     */
+    public Set<String> getItemIds() {
+        return Collections.unmodifiableSet(entries.keySet());
+    }
+    
+    /**
+     * Gets the number of items without building lazy items
+     * 
+     * @return The item count
+     */
+    public int getItemCount() {
+        return entries.size();
+    }
+    
+    /**
+     * Gets the number of items that have been built
+     * 
+     * @return The number of items in memory
+     */
+    public int getMaterializedCount() {
+        int count = 0;
+        for (ItemEntry entry : entries.values()) {
+            if (entry.isMaterialized()) count++;
+        }
+        return count;
+    }
+    
+    /**
+     * Gets the entries of all items with the given material
+     * 
+     * @param material The material
+     * @return The matching entries, empty if none
+     */
+    public List<ItemEntry> getEntriesWithMaterial(Material material) {
+        if (materialIndex != null) {
+            return materialIndex.getOrDefault(material, Collections.emptyList());
+        }
+        
+        List<ItemEntry> matches = new ArrayList<>();
+        for (ItemEntry entry : entries.values()) {
+            if (entry.getMaterial() == material) {
+                matches.add(entry);
+            }
+        }
+        return matches;
+    }
+    
+    /**
+     * Gets the entry of an item without building it
+     * 
+     * @param itemId The item ID
+     * @return The entry or null if not found
+     */
+    public ItemEntry getEntry(String itemId) {
+        return entries.get(itemId.toLowerCase());
     }
     
     /**
@@ -62,7 +151,8 @@ public class ItemNamespace {
      * @return The CustomItem or null if not found
      */
     public CustomItem getItem(String itemId) {
-        return items.get(itemId.toLowerCase());
+        ItemEntry entry = entries.get(itemId.toLowerCase());
+        return entry != null ? entry.get() : null;
     }
     
     /**
@@ -72,14 +162,49 @@ public class ItemNamespace {
      * @param item The CustomItem
      */
     public void addItem(String itemId, CustomItem item) {
-        items.put(itemId.toLowerCase(), item);
+        addEntry(itemId, new ItemEntry(item));
     }
     
     /**
-     * Clears all items from this namespace
+     * Adds an item entry, which may be lazy
+     * 
+     * @param entry The item entry
      */
-    public void clearItems() {
-        items.clear();
+    public void addEntry(ItemEntry entry) {
+        addEntry(entry.getId(), entry);
+    }
+    
+    private void addEntry(String itemId, ItemEntry entry) {
+        if (sealed) {
+            throw new IllegalStateException("Namespace " + name + " is already part of a registry and cannot be modified");
+        }
+        entries.put(itemId.toLowerCase(), entry);
+    }
+    
+    /**
+     * Makes this namespace read-only and builds the material index.
+     * Called when the namespace is published in a registry.
+     */
+    void seal() {
+        if (sealed) return;
+        
+        Map<Material, List<ItemEntry>> index = new EnumMap<>(Material.class);
+        for (ItemEntry entry : entries.values()) {
+            index.computeIfAbsent(entry.getMaterial(), material -> new ArrayList<>(2)).add(entry);
+        }
+        
+        entries = Collections.unmodifiableMap(entries);
+        materialIndex = index;
+        sealed = true;
+    }
+    
+    /**
+     * Checks if this namespace has been published and can no longer be modified
+     * 
+     * @return True if the namespace is sealed
+     */
+    public boolean isSealed() {
+        return sealed;
     }
     
     /**
@@ -99,6 +224,66 @@ public class ItemNamespace {
      * @return True if the item exists in this namespace
      */
     public boolean hasItem(String itemId) {
-        return items.containsKey(itemId.toLowerCase());
+        return entries.containsKey(itemId.toLowerCase());
+    }
+    
+    /**
+     * Read-only map view over the entries that builds lazy items as they are read.
+     * Items that failed to build are left out everywhere: lookups, keys, size and iteration.
+     */
+    private final class ItemsView extends AbstractMap<String, CustomItem> {
+        
+        @Override
+        public CustomItem get(Object key) {
+            ItemEntry entry = entries.get(key);
+            return entry != null ? entry.get() : null;
+        }
+        
+        @Override
+        public boolean containsKey(Object key) {
+            return get(key) != null;
+        }
+        
+        @Override
+        public Set<Entry<String, CustomItem>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<String, CustomItem>> iterator() {
+                    Iterator<Map.Entry<String, ItemEntry>> source = entries.entrySet().iterator();
+                    return new Iterator<>() {
+                        private Entry<String, CustomItem> next;
+                        
+                        @Override
+                        public boolean hasNext() {
+                            while (next == null && source.hasNext()) {
+                                Map.Entry<String, ItemEntry> candidate = source.next();
+                                CustomItem item = candidate.getValue().get();
+                                if (item != null) {
+                                    next = new SimpleImmutableEntry<>(candidate.getKey(), item);
+                                }
+                            }
+                            return next != null;
+                        }
+                        
+                        @Override
+                        public Entry<String, CustomItem> next() {
+                            if (!hasNext()) throw new NoSuchElementException();
+                            Entry<String, CustomItem> result = next;
+                            next = null;
+                            return result;
+                        }
+                    };
+                }
+                
+                @Override
+                public int size() {
+                    int size = 0;
+                    for (ItemEntry entry : entries.values()) {
+                        if (entry.get() != null) size++;
+                    }
+                    return size;
+                }
+            };
+        }
     }
 }
@@ -0,0 +1,170 @@
+package com.yrhv.coreitems.namespace.model;
+
+import com.yrhv.coreitems.give.model.CustomItem;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The order namespaces and items are listed in, from the sorting section of the config.
+ * Sorting happens once per registry snapshot, see {@link ItemRegistry#getSortedEntries(String)}.
+ */
+public final class ItemOrdering {
+    
+    /**
+     * What namespaces or items are sorted by
+     */
+    public enum SortKey {
+        /** Alphabetically by ID or namespace name */
+        ID,
+        /** Alphabetically by display name without colors, items only */
+        NAME,
+        /** By material, then ID, items only */
+        MATERIAL,
+        /** The configured custom order first, then the order of the files */
+        CUSTOM;
+        
+        /**
+         * Parses a sort key from the config
+         * 
+         * @param value The configured value, may be null
+         * @param fallback The key to use if the value is missing or unknown
+         * @return The sort key
+         */
+        public static SortKey parse(String value, SortKey fallback) {
+            if (value == null) return fallback;
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                return fallback;
+            }
+        }
+    }
+    
+    /**
+     * Namespaces by name, items in the order of their files
+     */
+    public static final ItemOrdering DEFAULT = new ItemOrdering(SortKey.ID, SortKey.CUSTOM, Collections.emptyList());
+    
+    private final SortKey namespaceKey;
+    private final SortKey itemKey;
+    
+    // Lowercase namespace names and namespace:item IDs -> their position in the custom order
+    private final Map<String, Integer> customPositions = new HashMap<>();
+    
+    /**
+     * Creates an ordering
+     * 
+     * @param namespaceKey How namespaces are sorted; only ID and CUSTOM apply to namespaces
+     * @param itemKey How the items of a namespace are sorted
+     * @param customOrder Namespace names and namespace:item IDs listed first with CUSTOM
+     */
+    public ItemOrdering(SortKey namespaceKey, SortKey itemKey, List<String> customOrder) {
+        this.namespaceKey = namespaceKey == SortKey.CUSTOM ? SortKey.CUSTOM : SortKey.ID;
+        this.itemKey = itemKey;
+        for (String name : customOrder) {
+            customPositions.putIfAbsent(name.toLowerCase(Locale.ROOT), customPositions.size());
+        }
+    }
+    
+    /**
+     * Sorts namespace names
+     * 
+     * @param names Lowercase namespace names in load order
+     * @return The sorted names
+     */
+    List<String> sortNamespaces(Collection<String> names) {
+        List<String> sorted = new ArrayList<>(names);
+        if (namespaceKey == SortKey.CUSTOM) {
+            sorted.sort(Comparator.comparingInt(this::customPosition));
+        } else {
+            Collections.sort(sorted);
+        }
+        return sorted;
+    }
+    
+    /**
+     * Sorts the items of a namespace. Sort keys are computed once per item, lazy items are
+     * read from their raw config and are not built.
+     * 
+     * @param namespace The namespace
+     * @return The sorted entries
+     */
+    List<ItemEntry> sortItems(ItemNamespace namespace) {
+        List<Keyed> keyed = new ArrayList<>(namespace.getItemCount());
+        for (ItemEntry entry : namespace.getEntries()) {
+            keyed.add(sortKey(namespace, entry));
+        }
+        
+        // The sort is stable, so items with equal keys stay in file order
+        if (itemKey == SortKey.CUSTOM) {
+            keyed.sort(Comparator.comparingInt(item -> item.position));
+        } else {
+            keyed.sort(Comparator.comparing((Keyed item) -> item.text)
+                    .thenComparing(item -> item.entry.getId()));
+        }
+        
+        List<ItemEntry> sorted = new ArrayList<>(keyed.size());
+        for (Keyed item : keyed) {
+            sorted.add(item.entry);
+        }
+        return sorted;
+    }
+    
+    private Keyed sortKey(ItemNamespace namespace, ItemEntry entry) {
+        return switch (itemKey) {
+            case ID -> new Keyed(entry, entry.getId().toLowerCase(Locale.ROOT));
+            case NAME -> new Keyed(entry, displayName(entry));
+            case MATERIAL -> new Keyed(entry, entry.getMaterial().name());
+            case CUSTOM -> new Keyed(entry, customPosition(namespace.getFullItemId(entry.getId())));
+        };
+    }
+    
+    private int customPosition(String name) {
+        return customPositions.getOrDefault(name.toLowerCase(Locale.ROOT), Integer.MAX_VALUE);
+    }
+    
+    /**
+     * Lowercase display name without colors, or the ID if the item has no name
+     */
+    private static String displayName(ItemEntry entry) {
+        String name = null;
+        if (!entry.isMaterialized() && entry.getDefinition() != null) {
+            name = entry.getDefinition().getName();
+        } else {
+            CustomItem item = entry.get();
+            name = item != null ? item.getDisplayName() : null;
+        }
+        if (name == null || name.isEmpty()) {
+            return entry.getId().toLowerCase(Locale.ROOT);
+        }
+        return ItemSearchIndex.stripColors(name).toLowerCase(Locale.ROOT);
+    }
+    
+    /**
+     * An entry with its precomputed sort key
+     */
+    private static final class Keyed {
+        private final ItemEntry entry;
+        private final String text;
+        private final int position;
+        
+        private Keyed(ItemEntry entry, String text) {
+            this.entry = entry;
+            this.text = text;
+            this.position = 0;
+        }
+        
+        private Keyed(ItemEntry entry, int position) {
+            this.entry = entry;
+            this.text = null;
+            this.position = position;
+        }
+    }
+}
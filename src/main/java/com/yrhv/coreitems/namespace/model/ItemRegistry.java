@@ -0,0 +1,209 @@
+package com.yrhv.coreitems.namespace.model;
+
+import com.yrhv.coreitems.give.model.CustomItem;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Immutable snapshot of all loaded namespaces.
+ * A new snapshot is built completely before it is published, so readers on any thread
+ * always see either the old or the new catalog, never a partially loaded one.
+ * Each snapshot carries a generation number that increases with every reload, which
+ * caches can use to tell whether their contents are still current.
+ * Namespaces and items are also kept sorted in the configured order, so listings read
+ * ranges of the same lists instead of copying and sorting them.
+ */
+public final class ItemRegistry {
+    
+    /**
+     * Registry used before anything has been loaded
+     */
+    public static final ItemRegistry EMPTY = new ItemRegistry(0L, Collections.emptyMap());
+    
+    private final long generation;
+    private final Map<String, ItemNamespace> namespaces;
+    private final ItemOrdering ordering;
+    private final List<String> sortedNamespaceNames;
+    private final Map<String, List<ItemEntry>> sortedEntries = new ConcurrentHashMap<>();
+    private final Map<String, ItemFacets> facets = new ConcurrentHashMap<>();
+    private volatile ItemSearchIndex searchIndex;
+    private volatile FuzzyItemIndex fuzzyIndex;
+    
+    /**
+     * Creates a registry snapshot with the default ordering
+     * 
+     * @param generation The generation number of this snapshot
+     * @param namespaces Map of lowercase namespace names to namespaces
+     */
+    public ItemRegistry(long generation, Map<String, ItemNamespace> namespaces) {
+        this(generation, namespaces, ItemOrdering.DEFAULT);
+    }
+    
+    /**
+     * Creates a registry snapshot. The namespaces are sealed and can no longer be modified.
+     * 
+     * @param generation The generation number of this snapshot
+     * @param namespaces Map of lowercase namespace names to namespaces
+     * @param ordering The order namespaces and items are listed in
+     */
+    public ItemRegistry(long generation, Map<String, ItemNamespace> namespaces, ItemOrdering ordering) {
+        this.generation = generation;
+        this.ordering = ordering;
+        
+        Map<String, ItemNamespace> copy = new LinkedHashMap<>();
+        for (Map.Entry<String, ItemNamespace> entry : namespaces.entrySet()) {
+            ItemNamespace namespace = entry.getValue();
+            namespace.seal();
+            copy.put(entry.getKey().toLowerCase(), namespace);
+        }
+        this.namespaces = Collections.unmodifiableMap(copy);
+        this.sortedNamespaceNames = List.copyOf(ordering.sortNamespaces(copy.keySet()));
+    }
+    
+    /**
+     * Gets the generation number of this snapshot
+     * 
+     * @return The generation number
+     */
+    public long getGeneration() {
+        return generation;
+    }
+    
+    /**
+     * Gets all namespaces
+     * 
+     * @return Unmodifiable map of lowercase namespace names to namespaces
+     */
+    public Map<String, ItemNamespace> getNamespaces() {
+        return namespaces;
+    }
+    
+    /**
+     * Gets all namespace names
+     * 
+     * @return Unmodifiable set of lowercase namespace names
+     */
+    public Set<String> getNamespaceNames() {
+        return namespaces.keySet();
+    }
+    
+    /**
+     * Gets all namespace names in the configured order
+     * 
+     * @return Immutable list of lowercase namespace names
+     */
+    public List<String> getSortedNamespaceNames() {
+        return sortedNamespaceNames;
+    }
+    
+    /**
+     * Gets the items of a namespace in the configured order, sorting them on first use.
+     * Lazy items are not built. Safe to call from any thread.
+     * 
+     * @param namespaceName The namespace name
+     * @return Immutable list of the entries, empty if the namespace doesn't exist
+     */
+    public List<ItemEntry> getSortedEntries(String namespaceName) {
+        ItemNamespace namespace = getNamespace(namespaceName);
+        if (namespace == null) return Collections.emptyList();
+        return sortedEntries.computeIfAbsent(namespaceName.toLowerCase(),
+                name -> List.copyOf(ordering.sortItems(namespace)));
+    }
+    
+    /**
+     * Gets the facets of a namespace for filtering its items, building them on first use.
+     * Safe to call from any thread.
+     * 
+     * @param namespaceName The namespace name
+     * @return The facets, matching the order of {@link #getSortedEntries(String)}
+     */
+    public ItemFacets getFacets(String namespaceName) {
+        return facets.computeIfAbsent(namespaceName.toLowerCase(),
+                name -> new ItemFacets(getSortedEntries(name)));
+    }
+    
+    /**
+     * Gets a namespace by name
+     * 
+     * @param namespaceName The namespace name
+     * @return The namespace, or null if it doesn't exist
+     */
+    public ItemNamespace getNamespace(String namespaceName) {
+        return namespaces.get(namespaceName.toLowerCase());
+    }
+    
+    /**
+     * Gets an item by its namespace and ID
+     * 
+     * @param namespaceName The namespace name
+     * @param itemId The item ID within that namespace
+     * @return The CustomItem or null if not found
+     */
+    public CustomItem getItem(String namespaceName, String itemId) {
+        ItemNamespace namespace = getNamespace(namespaceName);
+        return namespace != null ? namespace.getItem(itemId) : null;
+    }
+    
+    /**
+     * Checks if any namespace defines an item with exactly this ID. Per-player state such as
+     * cooldowns and tracked counts is keyed by the ID without namespace, so it may only be
+     * moved or dropped when no namespace uses the ID anymore.
+     * 
+     * @param itemId The item ID without namespace
+     * @return True if at least one namespace has an item with this ID
+     */
+    public boolean isItemIdInUse(String itemId) {
+        for (ItemNamespace namespace : namespaces.values()) {
+            ItemEntry entry = namespace.getEntry(itemId);
+            if (entry != null && entry.getId().equals(itemId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Gets the full-text search index of this snapshot, building it on first use.
+     * Safe to call from any thread; concurrent callers wait for the same index.
+     * 
+     * @return The search index
+     */
+    public ItemSearchIndex getSearchIndex() {
+        ItemSearchIndex index = searchIndex;
+        if (index == null) {
+            synchronized (this) {
+                index = searchIndex;
+                if (index == null) {
+                    index = new ItemSearchIndex(this);
+                    searchIndex = index;
+                }
+            }
+        }
+        return index;
+    }
+    
+    /**
+     * Gets the typo-tolerant name index of this snapshot, building it on first use.
+     * Safe to call from any thread.
+     * 
+     * @return The fuzzy index
+     */
+    public FuzzyItemIndex getFuzzyIndex() {
+        FuzzyItemIndex index = fuzzyIndex;
+        if (index == null) {
+            synchronized (this) {
+                index = fuzzyIndex;
+                if (index == null) {
+                    index = new FuzzyItemIndex(this);
+                    fuzzyIndex = index;
+                }
+            }
+        }
+        return index;
+    }
+}
@@ -0,0 +1,354 @@
+package com.yrhv.coreitems.namespace.model;
+
+import com.yrhv.coreitems.give.model.CustomItem;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Full-text index over all items of a registry: item IDs, namespace names, display names
+ * and lore, with color codes stripped.
+ * Text is split into lowercase tokens. Every token points to the items that contain it and
+ * in which fields; tokens are kept sorted, so a query word finds all tokens it is a prefix
+ * of with one binary search, and a trigram index over the tokens finds words in the middle
+ * of tokens. Items must match every query word and are ranked by where and how well each
+ * word matched. Lazy items are indexed from their raw config and are not built.
+ * Immutable once built and safe to share between threads.
+ */
+public final class ItemSearchIndex {
+    
+    // Fields a token can occur in, as bits of a field mask
+    private static final int FIELD_ID = 1;
+    private static final int FIELD_NAME = 2;
+    private static final int FIELD_NAMESPACE = 4;
+    private static final int FIELD_LORE = 8;
+    
+    // How a query word matched a token
+    private static final float EXACT = 1.0f;
+    private static final float PREFIX = 0.7f;
+    private static final float INFIX = 0.4f;
+    
+    private static final Pattern COLOR_CODES = Pattern.compile("(?i)[&§](#[0-9a-f]{6}|[0-9a-fk-orx])");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    
+    /**
+     * An item that matched a query
+     */
+    public static final class Hit {
+        private final ItemNamespace namespace;
+        private final ItemEntry entry;
+        private final float score;
+        
+        Hit(ItemNamespace namespace, ItemEntry entry, float score) {
+            this.namespace = namespace;
+            this.entry = entry;
+            this.score = score;
+        }
+        
+        public ItemNamespace getNamespace() {
+            return namespace;
+        }
+        
+        public ItemEntry getEntry() {
+            return entry;
+        }
+        
+        public float getScore() {
+            return score;
+        }
+        
+        /**
+         * Gets the full item ID
+         * 
+         * @return The ID as namespace:item
+         */
+        public String getFullId() {
+            return namespace.getFullItemId(entry.getId());
+        }
+    }
+    
+    private final ItemNamespace[] itemNamespaces;
+    private final ItemEntry[] items;
+    
+    // Sorted tokens, and for each token the items containing it with their field masks
+    private final String[] tokens;
+    private final int[][] postingItems;
+    private final byte[][] postingFields;
+    
+    // Trigram -> indices into tokens, for matches inside a token
+    private final Map<String, int[]> trigrams;
+    
+    /**
+     * Builds the index for a registry, see {@link ItemRegistry#getSearchIndex()}
+     * 
+     * @param registry The registry to index
+     */
+    ItemSearchIndex(ItemRegistry registry) {
+        List<ItemNamespace> namespaceList = new ArrayList<>();
+        List<ItemEntry> entryList = new ArrayList<>();
+        Map<String, Posting> postings = new HashMap<>();
+        
+        for (ItemNamespace namespace : registry.getNamespaces().values()) {
+            for (ItemEntry entry : namespace.getEntries()) {
+                int item = entryList.size();
+                namespaceList.add(namespace);
+                entryList.add(entry);
+                
+                addTokens(postings, item, FIELD_ID, entry.getId());
+                addTokens(postings, item, FIELD_NAMESPACE, namespace.getName());
+                addText(postings, item, entry);
+            }
+        }
+        
+        this.itemNamespaces = namespaceList.toArray(new ItemNamespace[0]);
+        this.items = entryList.toArray(new ItemEntry[0]);
+        this.tokens = postings.keySet().toArray(new String[0]);
+        Arrays.sort(tokens);
+        this.postingItems = new int[tokens.length][];
+        this.postingFields = new byte[tokens.length][];
+        
+        Map<String, List<Integer>> trigramLists = new HashMap<>();
+        for (int index = 0; index < tokens.length; index++) {
+            Posting posting = postings.get(tokens[index]);
+            postingItems[index] = Arrays.copyOf(posting.items, posting.size);
+            postingFields[index] = Arrays.copyOf(posting.fields, posting.size);
+            
+            for (String trigram : trigramsOf(tokens[index])) {
+                trigramLists.computeIfAbsent(trigram, key -> new ArrayList<>()).add(index);
+            }
+        }
+        
+        this.trigrams = new HashMap<>();
+        for (Map.Entry<String, List<Integer>> entry : trigramLists.entrySet()) {
+            trigrams.put(entry.getKey(), entry.getValue().stream().mapToInt(Integer::intValue).toArray());
+        }
+    }
+    
+    /**
+     * Items containing a token while the index is built. Items are added in increasing order,
+     * so a token found again in the same item only updates the last field mask.
+     */
+    private static final class Posting {
+        private int[] items = new int[4];
+        private byte[] fields = new byte[4];
+        private int size;
+        
+        private void add(int item, int field) {
+            if (size > 0 && items[size - 1] == item) {
+                fields[size - 1] |= (byte) field;
+                return;
+            }
+            if (size == items.length) {
+                items = Arrays.copyOf(items, size * 2);
+                fields = Arrays.copyOf(fields, size * 2);
+            }
+            items[size] = item;
+            fields[size++] = (byte) field;
+        }
+    }
+    
+    /**
+     * Indexes display name and lore; lazy items are read from their config summary
+     */
+    private static void addText(Map<String, Posting> postings, int item, ItemEntry entry) {
+        LazyDefinition definition = entry.getDefinition();
+        if (entry.isMaterialized() || definition == null) {
+            CustomItem customItem = entry.get();
+            if (customItem == null) return;
+            addTokens(postings, item, FIELD_NAME, customItem.getDisplayName());
+            for (String line : customItem.getLore()) {
+                addTokens(postings, item, FIELD_LORE, line);
+            }
+            return;
+        }
+        
+        addTokens(postings, item, FIELD_NAME, definition.getName());
+        for (String line : definition.getLore()) {
+            addTokens(postings, item, FIELD_LORE, line);
+        }
+    }
+    
+    private static void addTokens(Map<String, Posting> postings, int item, int field, String text) {
+        for (String token : tokenize(text)) {
+            postings.computeIfAbsent(token, key -> new Posting()).add(item, field);
+        }
+    }
+    
+    /**
+     * Splits text into lowercase words, without color codes
+     * 
+     * @param text The text, may be null
+     * @return The distinct words in order
+     */
+    public static Set<String> tokenize(String text) {
+        Set<String> result = new LinkedHashSet<>();
+        if (text == null) return result;
+        
+        for (String token : SEPARATORS.split(stripColors(text).toLowerCase())) {
+            if (!token.isEmpty()) {
+                result.add(token);
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * Removes color codes from text
+     */
+    static String stripColors(String text) {
+        return COLOR_CODES.matcher(text).replaceAll("");
+    }
+    
+    private static Set<String> trigramsOf(String token) {
+        Set<String> result = new LinkedHashSet<>();
+        for (int i = 0; i + 3 <= token.length(); i++) {
+            result.add(token.substring(i, i + 3));
+        }
+        return result;
+    }
+    
+    /**
+     * Finds the items matching all words of a query, best matches first.
+     * A word matches a token exactly, as its prefix or, from three letters on, anywhere in it.
+     * Matches in the item ID rank above the display name, then the namespace, then the lore.
+     * 
+     * @param query The search text
+     * @param limit The maximum number of hits
+     * @return The hits, best first; items with equal scores stay in catalog order
+     */
+    public List<Hit> search(String query, int limit) {
+        Set<String> words = tokenize(query);
+        if (words.isEmpty() || items.length == 0) return Collections.emptyList();
+        
+        float[] scores = new float[items.length];
+        int[] matchedWords = new int[items.length];
+        float[] best = new float[items.length];
+        int[] touched = new int[items.length];
+        int wordNumber = 0;
+        
+        for (String word : words) {
+            int touchedCount = 0;
+            
+            // Exact and prefix matches: one contiguous range of the sorted tokens
+            int token = lowerBound(word);
+            while (token < tokens.length && tokens[token].startsWith(word)) {
+                touchedCount = collect(token, tokens[token].length() == word.length() ? EXACT : PREFIX, best, touched, touchedCount);
+                token++;
+            }
+            
+            // Matches inside tokens, found through the tokens sharing all trigrams of the word
+            if (word.length() >= 3) {
+                for (int candidate : infixCandidates(word)) {
+                    if (!tokens[candidate].startsWith(word) && tokens[candidate].contains(word)) {
+                        touchedCount = collect(candidate, INFIX, best, touched, touchedCount);
+                    }
+                }
+            }
+            
+            for (int i = 0; i < touchedCount; i++) {
+                int item = touched[i];
+                if (matchedWords[item] == wordNumber) {
+                    scores[item] += best[item];
+                    matchedWords[item]++;
+                }
+                best[item] = 0;
+            }
+            wordNumber++;
+        }
+        
+        List<Integer> matches = new ArrayList<>();
+        for (int item = 0; item < items.length; item++) {
+            if (matchedWords[item] == wordNumber) {
+                matches.add(item);
+            }
+        }
+        matches.sort((a, b) -> Float.compare(scores[b], scores[a]));
+        
+        List<Hit> hits = new ArrayList<>(Math.min(limit, matches.size()));
+        for (int i = 0; i < matches.size() && i < limit; i++) {
+            int item = matches.get(i);
+            hits.add(new Hit(itemNamespaces[item], items[item], scores[item]));
+        }
+        return hits;
+    }
+    
+    /**
+     * Records the best score of a word for every item containing a token
+     */
+    private int collect(int token, float quality, float[] best, int[] touched, int touchedCount) {
+        int[] tokenItems = postingItems[token];
+        byte[] fields = postingFields[token];
+        for (int i = 0; i < tokenItems.length; i++) {
+            int item = tokenItems[i];
+            float score = quality * fieldWeight(fields[i]);
+            if (best[item] == 0) {
+                touched[touchedCount++] = item;
+            }
+            if (score > best[item]) {
+                best[item] = score;
+            }
+        }
+        return touchedCount;
+    }
+    
+    private static float fieldWeight(int fields) {
+        if ((fields & FIELD_ID) != 0) return 4;
+        if ((fields & FIELD_NAME) != 0) return 3;
+        if ((fields & FIELD_NAMESPACE) != 0) return 2;
+        return 1;
+    }
+    
+    /**
+     * Intersects the token lists of all trigrams of a word
+     */
+    private int[] infixCandidates(String word) {
+        int[] candidates = null;
+        for (String trigram : trigramsOf(word)) {
+            int[] list = trigrams.get(trigram);
+            if (list == null) return new int[0];
+            candidates = candidates == null ? list : intersect(candidates, list);
+            if (candidates.length == 0) break;
+        }
+        return candidates;
+    }
+    
+    private static int[] intersect(int[] a, int[] b) {
+        int[] result = new int[Math.min(a.length, b.length)];
+        int i = 0;
+        int j = 0;
+        int count = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                result[count++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+    
+    private int lowerBound(String word) {
+        int index = Arrays.binarySearch(tokens, word);
+        return index >= 0 ? index : -index - 1;
+    }
+    
+    /**
+     * Gets the number of indexed items
+     * 
+     * @return The item count
+     */
+    public int size() {
+        return items.length;
+    }
+}
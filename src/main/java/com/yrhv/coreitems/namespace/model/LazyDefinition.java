@@ -0,0 +1,104 @@
+package com.yrhv.coreitems.namespace.model;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * What is kept in memory of a lazy item's config until the item is built: the few properties
+ * the item browser and the search index read, and a digest of the whole section so a reload
+ * can tell whether the item changed. Everything else is read from the file again when the
+ * item is built. Immutable.
+ */
+public final class LazyDefinition {
+    
+    private final byte[] digest;
+    private final String name;
+    private final List<String> lore;
+    private final boolean hasCommand;
+    private final Object customModelData;
+    
+    /**
+     * Summarizes an item section
+     * 
+     * @param values The item properties as plain maps, lists and values
+     */
+    public LazyDefinition(Map<String, Object> values) {
+        this.digest = digest(values.toString());
+        
+        Object nameValue = values.get("name");
+        this.name = nameValue != null ? nameValue.toString() : null;
+        
+        List<String> loreLines = new ArrayList<>();
+        if (values.get("lore") instanceof List<?> list) {
+            for (Object line : list) {
+                if (line != null) {
+                    loreLines.add(line.toString());
+                }
+            }
+        }
+        this.lore = loreLines.isEmpty() ? Collections.emptyList() : List.copyOf(loreLines);
+        
+        this.hasCommand = values.get("right-click-command") != null || values.get("left-click-command") != null;
+        this.customModelData = values.get("custom-model-data");
+    }
+    
+    private static byte[] digest(String text) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+    
+    /**
+     * Gets the configured display name, with color codes
+     * 
+     * @return The name, or null if the item has none
+     */
+    public String getName() {
+        return name;
+    }
+    
+    /**
+     * Gets the configured lore lines, with color codes
+     * 
+     * @return The lore, empty if the item has none
+     */
+    public List<String> getLore() {
+        return lore;
+    }
+    
+    /**
+     * Checks if the item has a right or left click command
+     * 
+     * @return True if a click command is configured
+     */
+    public boolean hasCommand() {
+        return hasCommand;
+    }
+    
+    /**
+     * Gets the configured custom model data as written
+     * 
+     * @return The raw value, or null if the item has none
+     */
+    public Object getCustomModelData() {
+        return customModelData;
+    }
+    
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof LazyDefinition definition && Arrays.equals(digest, definition.digest);
+    }
+    
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(digest);
+    }
+}
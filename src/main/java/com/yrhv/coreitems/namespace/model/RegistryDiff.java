@@ -0,0 +1,243 @@
+package com.yrhv.coreitems.namespace.model;
+
+import org.bukkit.Material;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Differences between two versions of the item catalog.
+ * Computing a diff also carries unchanged items over: wherever the new catalog defines an
+ * item exactly like the old one, the new namespace gets the old {@link ItemEntry}, so the
+ * item instance, whether it was built, and everything cached on it survive the reload.
+ * Items that disappeared and reappeared under another ID with an identical definition (in
+ * the same namespace) are reported as renames, so state kept per item ID can follow them.
+ */
+public final class RegistryDiff {
+    
+    // How many IDs per kind of change the summary lists by name
+    private static final int SUMMARY_LIMIT = 5;
+    
+    /**
+     * An item that was renamed without other changes
+     */
+    public static final class Rename {
+        private final String namespace;
+        private final String oldId;
+        private final String newId;
+        
+        private Rename(String namespace, String oldId, String newId) {
+            this.namespace = namespace;
+            this.oldId = oldId;
+            this.newId = newId;
+        }
+        
+        public String getNamespace() {
+            return namespace;
+        }
+        
+        public String getOldId() {
+            return oldId;
+        }
+        
+        public String getNewId() {
+            return newId;
+        }
+        
+        @Override
+        public String toString() {
+            return namespace + ":" + oldId + " -> " + namespace + ":" + newId;
+        }
+    }
+    
+    private final List<String> added = new ArrayList<>();
+    private final List<String> removed = new ArrayList<>();
+    private final List<String> changed = new ArrayList<>();
+    private final List<Rename> renamed = new ArrayList<>();
+    private int unchanged;
+    
+    private RegistryDiff() {
+    }
+    
+    /**
+     * Compares the current catalog with the namespaces about to replace it.
+     * Entries of unchanged items in namespaces that are not yet sealed are replaced by the
+     * old entries. Must be called before the new namespaces are published.
+     * 
+     * @param previous The current registry
+     * @param next Map of namespace names to the new namespaces
+     * @return The differences
+     */
+    public static RegistryDiff compute(ItemRegistry previous, Map<String, ItemNamespace> next) {
+        RegistryDiff diff = new RegistryDiff();
+        Map<String, ItemNamespace> remaining = new LinkedHashMap<>(previous.getNamespaces());
+        
+        for (Map.Entry<String, ItemNamespace> entry : next.entrySet()) {
+            ItemNamespace namespace = entry.getValue();
+            ItemNamespace old = remaining.remove(entry.getKey().toLowerCase());
+            if (old == namespace) {
+                diff.unchanged += namespace.getItemCount(); // Carried over as a whole
+            } else {
+                diff.compareNamespace(old, namespace);
+            }
+        }
+        
+        for (ItemNamespace old : remaining.values()) {
+            for (ItemEntry entry : old.getEntries()) {
+                diff.removed.add(old.getFullItemId(entry.getId()));
+            }
+        }
+        return diff;
+    }
+    
+    private void compareNamespace(ItemNamespace old, ItemNamespace namespace) {
+        List<ItemEntry> addedEntries = new ArrayList<>();
+        List<ItemEntry> reused = new ArrayList<>();
+        
+        for (ItemEntry entry : namespace.getEntries()) {
+            ItemEntry previous = old != null ? old.getEntry(entry.getId()) : null;
+            if (previous == null) {
+                addedEntries.add(entry);
+            } else if (previous.getId().equals(entry.getId()) && previous.hasSameDefinition(entry)) {
+                reused.add(previous);
+                unchanged++;
+            } else {
+                changed.add(namespace.getFullItemId(entry.getId()));
+            }
+        }
+        
+        if (!namespace.isSealed()) {
+            for (ItemEntry entry : reused) {
+                namespace.addEntry(entry); // Same key, so the entry keeps its position
+            }
+        }
+        
+        // Items of the old namespace that are gone, grouped by material for the rename search
+        Map<Material, List<ItemEntry>> removedEntries = new EnumMap<>(Material.class);
+        if (old != null) {
+            for (ItemEntry entry : old.getEntries()) {
+                if (!namespace.hasItem(entry.getId())) {
+                    removedEntries.computeIfAbsent(entry.getMaterial(), material -> new ArrayList<>()).add(entry);
+                }
+            }
+        }
+        
+        for (ItemEntry entry : addedEntries) {
+            ItemEntry renamedFrom = takeSameDefinition(removedEntries.get(entry.getMaterial()), entry);
+            if (renamedFrom != null) {
+                renamed.add(new Rename(namespace.getName(), renamedFrom.getId(), entry.getId()));
+            } else {
+                added.add(namespace.getFullItemId(entry.getId()));
+            }
+        }
+        
+        for (List<ItemEntry> entries : removedEntries.values()) {
+            for (ItemEntry entry : entries) {
+                removed.add(old.getFullItemId(entry.getId()));
+            }
+        }
+    }
+    
+    private static ItemEntry takeSameDefinition(List<ItemEntry> candidates, ItemEntry entry) {
+        if (candidates == null) return null;
+        
+        Iterator<ItemEntry> iterator = candidates.iterator();
+        while (iterator.hasNext()) {
+            ItemEntry candidate = iterator.next();
+            if (candidate.hasSameDefinition(entry)) {
+                iterator.remove();
+                return candidate;
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * Gets the full IDs (namespace:item) of items that are new
+     * 
+     * @return The added items
+     */
+    public List<String> getAdded() {
+        return Collections.unmodifiableList(added);
+    }
+    
+    /**
+     * Gets the full IDs of items that no longer exist
+     * 
+     * @return The removed items
+     */
+    public List<String> getRemoved() {
+        return Collections.unmodifiableList(removed);
+    }
+    
+    /**
+     * Gets the full IDs of items whose definition changed
+     * 
+     * @return The changed items
+     */
+    public List<String> getChanged() {
+        return Collections.unmodifiableList(changed);
+    }
+    
+    /**
+     * Gets the items that only changed their ID
+     * 
+     * @return The renames
+     */
+    public List<Rename> getRenamed() {
+        return Collections.unmodifiableList(renamed);
+    }
+    
+    /**
+     * Gets the number of items that were carried over unchanged
+     * 
+     * @return The number of unchanged items
+     */
+    public int getUnchangedCount() {
+        return unchanged;
+    }
+    
+    /**
+     * Checks if the catalog is exactly the same as before
+     * 
+     * @return True if nothing was added, removed, changed or renamed
+     */
+    public boolean isEmpty() {
+        return added.isEmpty() && removed.isEmpty() && changed.isEmpty() && renamed.isEmpty();
+    }
+    
+    /**
+     * Builds a short human-readable summary of the changes
+     * 
+     * @return The summary lines
+     */
+    public List<String> getSummary() {
+        List<String> lines = new ArrayList<>();
+        lines.add(added.size() + " added, " + removed.size() + " removed, " + changed.size() + " changed, "
+                + renamed.size() + " renamed, " + unchanged + " unchanged");
+        addSummaryLine(lines, "Added", added);
+        addSummaryLine(lines, "Removed", removed);
+        addSummaryLine(lines, "Changed", changed);
+        addSummaryLine(lines, "Renamed", renamed);
+        return lines;
+    }
+    
+    private static void addSummaryLine(List<String> lines, String label, List<?> values) {
+        if (values.isEmpty()) return;
+        
+        StringBuilder line = new StringBuilder("  ").append(label).append(": ");
+        for (int i = 0; i < Math.min(values.size(), SUMMARY_LIMIT); i++) {
+            if (i > 0) line.append(", ");
+            line.append(values.get(i));
+        }
+        if (values.size() > SUMMARY_LIMIT) {
+            line.append(" and ").append(values.size() - SUMMARY_LIMIT).append(" more");
+        }
+        lines.add(line.toString());
+    }
+}
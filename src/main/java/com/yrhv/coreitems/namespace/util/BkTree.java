@@ -0,0 +1,178 @@
+package com.yrhv.coreitems.namespace.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * BK-tree over strings for finding the keys closest to a misspelled query.
+ * Every child of a node sits at a known edit distance from it, so by the triangle
+ * inequality a search only descends into children whose distance is within the tolerance
+ * of the query's distance to the node, and skips most of the tree.
+ * Not thread-safe while keys are added; safe to search from several threads afterwards.
+ * 
+ * @param <T> The values stored with the keys
+ */
+public class BkTree<T> {
+    
+    /**
+     * A key within the searched distance
+     * 
+     * @param <T> The value type
+     */
+    public static final class Match<T> {
+        private final String key;
+        private final List<T> values;
+        private final int distance;
+        
+        private Match(String key, List<T> values, int distance) {
+            this.key = key;
+            this.values = values;
+            this.distance = distance;
+        }
+        
+        public String getKey() {
+            return key;
+        }
+        
+        public List<T> getValues() {
+            return values;
+        }
+        
+        public int getDistance() {
+            return distance;
+        }
+    }
+    
+    private static final class Node<T> {
+        private final String key;
+        private final List<T> values = new ArrayList<>(1);
+        private Map<Integer, Node<T>> children;
+        private int maxChildDistance;
+        
+        private Node(String key) {
+            this.key = key;
+        }
+    }
+    
+    private Node<T> root;
+    private int size;
+    
+    /**
+     * Adds a key, or another value to a key that was added before
+     * 
+     * @param key The key
+     * @param value The value to return with the key
+     */
+    public void add(String key, T value) {
+        if (root == null) {
+            root = new Node<>(key);
+            root.values.add(value);
+            size++;
+            return;
+        }
+        
+        Node<T> node = root;
+        while (true) {
+            int distance = distance(key, node.key, Integer.MAX_VALUE);
+            if (distance == 0) {
+                node.values.add(value);
+                return;
+            }
+            if (node.children == null) {
+                node.children = new HashMap<>(4);
+            }
+            Node<T> child = node.children.get(distance);
+            if (child == null) {
+                child = new Node<>(key);
+                child.values.add(value);
+                node.children.put(distance, child);
+                node.maxChildDistance = Math.max(node.maxChildDistance, distance);
+                size++;
+                return;
+            }
+            node = child;
+        }
+    }
+    
+    /**
+     * Finds all keys within an edit distance of the query
+     * 
+     * @param query The query
+     * @param maxDistance The largest number of inserted, deleted or replaced characters
+     * @return The matches, closest first
+     */
+    public List<Match<T>> search(String query, int maxDistance) {
+        List<Match<T>> matches = new ArrayList<>();
+        if (root == null) return matches;
+        
+        Deque<Node<T>> pending = new ArrayDeque<>();
+        pending.push(root);
+        while (!pending.isEmpty()) {
+            Node<T> node = pending.pop();
+            // Beyond this limit neither the node nor any of its children can match
+            int distance = distance(query, node.key, maxDistance + node.maxChildDistance);
+            if (distance <= maxDistance) {
+                matches.add(new Match<>(node.key, node.values, distance));
+            }
+            
+            if (node.children != null) {
+                for (Map.Entry<Integer, Node<T>> child : node.children.entrySet()) {
+                    if (Math.abs(child.getKey() - distance) <= maxDistance) {
+                        pending.push(child.getValue());
+                    }
+                }
+            }
+        }
+        
+        matches.sort(Comparator.comparingInt((Match<T> match) -> match.distance).thenComparing(match -> match.key));
+        return matches;
+    }
+    
+    /**
+     * Gets the number of distinct keys
+     * 
+     * @return The key count
+     */
+    public int size() {
+        return size;
+    }
+    
+    /**
+     * Levenshtein distance between two strings, with two rows of the usual table.
+     * Stops early once every entry of a row exceeds the limit and returns limit + 1.
+     */
+    static int distance(String a, String b, int limit) {
+        if (Math.abs(a.length() - b.length()) > limit) {
+            return limit + 1;
+        }
+        
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            char ca = a.charAt(i - 1);
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = ca == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > limit) {
+                return limit + 1;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+}
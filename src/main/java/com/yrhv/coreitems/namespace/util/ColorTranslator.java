@@ -0,0 +1,67 @@
+package com.yrhv.coreitems.namespace.util;
+
+import org.bukkit.ChatColor;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Translates '&' color codes and hex colors in the format &#RRGGBB to the Bukkit color format.
+ * Item configs repeat the same lore lines and messages a lot, so translated strings are
+ * remembered. Safe to use from several parse threads at once.
+ */
+public class ColorTranslator {
+    
+    private static final Pattern HEX_PATTERN = Pattern.compile("&#([A-Fa-f0-9]{6})");
+    
+    // Upper bound for remembered strings, the memo is simply dropped when it is reached
+    private static final int MAX_CACHED = 4096;
+    
+    private final Map<String, String> translated = new ConcurrentHashMap<>();
+    
+    /**
+     * Translates all color codes of a message
+     * 
+     * @param message Message containing '&' and hex color codes
+     * @return Translated message, or the message itself if it is null or has no codes
+     */
+    public String translate(String message) {
+        if (message == null || message.indexOf('&') < 0) {
+            return message;
+        }
+        
+        String result = translated.get(message);
+        if (result == null) {
+            result = ChatColor.translateAlternateColorCodes('&', translateHexColorCodes(message));
+            if (translated.size() >= MAX_CACHED) {
+                translated.clear();
+            }
+            translated.put(message, result);
+        }
+        return result;
+    }
+    
+    /**
+     * Translates hex color codes in the format &#RRGGBB to §x§R§R§G§G§B§B
+     */
+    private static String translateHexColorCodes(String message) {
+        Matcher matcher = HEX_PATTERN.matcher(message);
+        if (!matcher.find()) {
+            return message;
+        }
+        
+        StringBuilder builder = new StringBuilder(message.length() + 16);
+        int last = 0;
+        do {
+            builder.append(message, last, matcher.start()).append("§x");
+            for (int i = matcher.start(1); i < matcher.end(1); i++) {
+                builder.append('§').append(message.charAt(i));
+            }
+            last = matcher.end();
+        } while (matcher.find());
+        
+        return builder.append(message, last, message.length()).toString();
+    }
+}
@@ -0,0 +1,315 @@
+package com.yrhv.coreitems.namespace.util;
+
+import com.yrhv.coreitems.give.model.CommandProperties;
+import com.yrhv.coreitems.give.model.CustomItem;
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.Registry;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.enchantments.Enchantment;
+import org.bukkit.inventory.ItemFlag;
+import org.bukkit.util.NumberConversions;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Parses custom items from their configuration sections.
+ * Every supported property has a handler in a lookup table, so a section is read in one
+ * pass over its own keys instead of asking it for every property the plugin knows.
+ * Problems are recorded in {@link LoadDiagnostics} rather than logged per item.
+ * Enchantments need the Bukkit registry and are returned as {@link PendingEnchantment}s,
+ * which lets items be parsed on any thread. Safe to share between threads.
+ */
+public class ItemParser {
+    
+    /**
+     * Handles one property of an item or of a click command
+     */
+    @FunctionalInterface
+    private interface Property<T> {
+        void apply(T target, Object value, Context context);
+    }
+    
+    private static final Map<String, Property<CustomItem>> ITEM_PROPERTIES = new HashMap<>();
+    private static final Map<String, Property<CommandProperties>> COMMAND_PROPERTIES = new HashMap<>();
+    
+    // Keys from older configs that are accepted but no longer do anything
+    private static final Set<String> IGNORED_KEYS = Set.of(
+            "minecraft-cooldown", "minecraft-cooldown-message", "minecraft-cooldown-message-interval");
+    
+    static {
+        ITEM_PROPERTIES.put("material", (item, value, context) -> {
+            Material material = parseMaterial(value);
+            if (material == null) {
+                throw new IllegalArgumentException("Invalid material for custom item " + context.identifier + ": " + value);
+            }
+            item.setMaterial(material);
+        });
+        ITEM_PROPERTIES.put("name", (item, value, context) -> item.setDisplayName(context.color(asString(value))));
+        ITEM_PROPERTIES.put("lore", (item, value, context) -> {
+            List<String> lore = new ArrayList<>();
+            for (String line : asStringList(value)) {
+                lore.add(context.color(line));
+            }
+            item.setLore(lore);
+        });
+        ITEM_PROPERTIES.put("custom-model-data", (item, value, context) -> item.setCustomModelData(asInt(value)));
+        ITEM_PROPERTIES.put("unbreakable", (item, value, context) -> item.setUnbreakable(asBoolean(value)));
+        ITEM_PROPERTIES.put("hide-attributes", (item, value, context) -> item.setHideAttributes(asBoolean(value)));
+        ITEM_PROPERTIES.put("glowing", (item, value, context) -> item.setGlowing(asBoolean(value)));
+        ITEM_PROPERTIES.put("is_enchanted", (item, value, context) -> item.setEnchanted(asBoolean(value)));
+        
+        // The registry lookup happens later, see resolveEnchantments
+        ITEM_PROPERTIES.put("enchantments", (item, value, context) -> {
+            Map<String, Object> enchants = asMap(value);
+            if (enchants == null) return;
+            for (Map.Entry<String, Object> entry : enchants.entrySet()) {
+                context.pendingEnchantments.add(new PendingEnchantment(item, entry.getKey(), asInt(entry.getValue())));
+            }
+        });
+        
+        ITEM_PROPERTIES.put("item-flags", (item, value, context) -> {
+            for (String flagName : asStringList(value)) {
+                try {
+                    item.addItemFlag(ItemFlag.valueOf(flagName.toUpperCase()));
+                } catch (IllegalArgumentException e) {
+                    context.diagnostics.warning(context.source, context.identifier, "Unknown item flag: " + flagName);
+                }
+            }
+        });
+        
+        ITEM_PROPERTIES.put("right-click-command", (item, value, context) -> item.setRightClickProperties(context.command(value, "right-click-command")));
+        ITEM_PROPERTIES.put("left-click-command", (item, value, context) -> item.setLeftClickProperties(context.command(value, "left-click-command")));
+        
+        // Per-item click action properties
+        ITEM_PROPERTIES.put("cooldown", (item, value, context) -> item.setCooldown(asInt(value)));
+        ITEM_PROPERTIES.put("cooldown-message", (item, value, context) -> item.setCooldownMessage(context.color(asString(value))));
+        ITEM_PROPERTIES.put("cooldown-message-interval", (item, value, context) -> item.setCooldownMessageInterval(asInt(value)));
+        ITEM_PROPERTIES.put("show-item-cooldown", (item, value, context) -> item.setShowItemCooldown(asBoolean(value)));
+        ITEM_PROPERTIES.put("cancel_right_click", (item, value, context) -> item.setCancelRightClick(asBoolean(value)));
+        ITEM_PROPERTIES.put("cancel_left_click", (item, value, context) -> item.setCancelLeftClick(asBoolean(value)));
+        ITEM_PROPERTIES.put("droppable", (item, value, context) -> item.setDroppable(asBoolean(value)));
+        ITEM_PROPERTIES.put("drop-message", (item, value, context) -> item.setDropMessage(context.color(asString(value))));
+        
+        // Nested click command properties, "command" itself is read before these
+        COMMAND_PROPERTIES.put("command", (properties, value, context) -> { });
+        COMMAND_PROPERTIES.put("cooldown", (properties, value, context) -> properties.setCooldown(asInt(value)));
+        COMMAND_PROPERTIES.put("cooldown-message", (properties, value, context) -> properties.setCooldownMessage(context.color(asString(value))));
+        COMMAND_PROPERTIES.put("cooldown-message-interval", (properties, value, context) -> properties.setCooldownMessageInterval(asInt(value)));
+        COMMAND_PROPERTIES.put("show-item-cooldown", (properties, value, context) -> properties.setShowItemCooldown(asBoolean(value)));
+    }
+    
+    private final ColorTranslator colorTranslator = new ColorTranslator();
+    
+    /**
+     * An enchantment read from the config that still has to be looked up in the registry
+     */
+    public static final class PendingEnchantment {
+        final CustomItem item;
+        final String key;
+        final int level;
+        
+        PendingEnchantment(CustomItem item, String key, int level) {
+            this.item = item;
+            this.key = key;
+            this.level = level;
+        }
+    }
+    
+    /**
+     * State of parsing one item
+     */
+    private final class Context {
+        private final String identifier;
+        private final String source;
+        private final LoadDiagnostics diagnostics;
+        private final List<PendingEnchantment> pendingEnchantments;
+        
+        private Context(String identifier, String source, LoadDiagnostics diagnostics, List<PendingEnchantment> pendingEnchantments) {
+            this.identifier = identifier;
+            this.source = source;
+            this.diagnostics = diagnostics;
+            this.pendingEnchantments = pendingEnchantments;
+        }
+        
+        private String color(String message) {
+            return colorTranslator.translate(message);
+        }
+        
+        /**
+         * Reads a click command, either a plain command string or a section with nested properties
+         */
+        private CommandProperties command(Object value, String key) {
+            Map<String, Object> values = asMap(value);
+            if (values == null) {
+                return new CommandProperties(asString(value));
+            }
+            
+            Object command = values.get("command");
+            // Old format - the key itself is the command
+            CommandProperties properties = new CommandProperties(command != null ? asString(command) : key);
+            apply(COMMAND_PROPERTIES, properties, values, this);
+            return properties;
+        }
+    }
+    
+    /**
+     * Parses a custom item from its configuration section
+     * 
+     * @param identifier The item ID
+     * @param section The item section
+     * @param source The file the item is defined in, for diagnostics
+     * @param diagnostics Collects problems with single properties
+     * @param pendingEnchantments Receives the item's enchantments, to be passed to {@link #resolveEnchantments}
+     * @return The parsed item, without enchantments
+     * @throws IllegalArgumentException If the item has no valid material or a property has an unusable value
+     */
+    public CustomItem parse(String identifier, ConfigurationSection section, String source,
+                            LoadDiagnostics diagnostics, List<PendingEnchantment> pendingEnchantments) {
+        return parse(identifier, section.getValues(false), source, diagnostics, pendingEnchantments);
+    }
+    
+    /**
+     * Parses a custom item from plain values, as read by {@link StreamingItemReader}.
+     * Nested sections may be maps or configuration sections.
+     * 
+     * @param identifier The item ID
+     * @param values The item properties
+     * @param source The file the item is defined in, for diagnostics
+     * @param diagnostics Collects problems with single properties
+     * @param pendingEnchantments Receives the item's enchantments, to be passed to {@link #resolveEnchantments}
+     * @return The parsed item, without enchantments
+     * @throws IllegalArgumentException If the item has no valid material or a property has an unusable value
+     */
+    public CustomItem parse(String identifier, Map<String, Object> values, String source,
+                            LoadDiagnostics diagnostics, List<PendingEnchantment> pendingEnchantments) {
+        CustomItem item = new CustomItem(identifier);
+        apply(ITEM_PROPERTIES, item, values, new Context(identifier, source, diagnostics, pendingEnchantments));
+        
+        // Material is required
+        if (item.getMaterial() == null) {
+            throw new IllegalArgumentException("Custom item " + identifier + " is missing material property");
+        }
+        return item;
+    }
+    
+    private static <T> void apply(Map<String, Property<T>> properties, T target, Map<String, Object> values, Context context) {
+        for (Map.Entry<String, Object> entry : values.entrySet()) {
+            Property<T> property = properties.get(entry.getKey());
+            if (property != null) {
+                property.apply(target, entry.getValue(), context);
+            } else if (!IGNORED_KEYS.contains(entry.getKey())) {
+                context.diagnostics.notice(context.source, context.identifier, "Unknown property '" + entry.getKey() + "' ignored");
+            }
+        }
+    }
+    
+    /**
+     * Looks up enchantments in the registry and adds them to their items.
+     * Must be called on the main thread, or wherever the registry may be used.
+     * 
+     * @param pendingEnchantments The enchantments collected while parsing
+     * @param source The file the items are defined in, for diagnostics
+     * @param diagnostics Collects unknown enchantments
+     */
+    public void resolveEnchantments(List<PendingEnchantment> pendingEnchantments, String source, LoadDiagnostics diagnostics) {
+        for (PendingEnchantment pending : pendingEnchantments) {
+            Enchantment enchantment = lookupEnchantment(pending.key, pending.item.getId(), source, diagnostics);
+            if (enchantment != null) {
+                pending.item.addEnchantment(enchantment, pending.level);
+            }
+        }
+    }
+    
+    /**
+     * Looks up the enchantments of an item section without parsing the rest of it,
+     * for items that are built later and possibly off the main thread.
+     * Must be called on the main thread, or wherever the registry may be used.
+     * 
+     * @param identifier The item ID
+     * @param values The item properties
+     * @param source The file the item is defined in, for diagnostics
+     * @param diagnostics Collects unknown enchantments
+     * @return The enchantments with their levels, empty if the item has none
+     */
+    public Map<Enchantment, Integer> resolveEnchantments(String identifier, Map<String, Object> values,
+                                                         String source, LoadDiagnostics diagnostics) {
+        Map<String, Object> enchants = asMap(values.get("enchantments"));
+        if (enchants == null || enchants.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        
+        Map<Enchantment, Integer> result = new LinkedHashMap<>();
+        for (Map.Entry<String, Object> entry : enchants.entrySet()) {
+            Enchantment enchantment = lookupEnchantment(entry.getKey(), identifier, source, diagnostics);
+            if (enchantment != null) {
+                result.put(enchantment, asInt(entry.getValue()));
+            }
+        }
+        return result;
+    }
+    
+    private static Enchantment lookupEnchantment(String key, String identifier, String source, LoadDiagnostics diagnostics) {
+        try {
+            // Convert enchantment name to minecraft key format (lowercase, no underscores)
+            String formattedKey = key.toLowerCase().replace("_", "");
+            Enchantment enchantment = Registry.ENCHANTMENT.get(NamespacedKey.minecraft(formattedKey));
+            if (enchantment == null) {
+                diagnostics.warning(source, identifier, "Unknown enchantment: " + key);
+            }
+            return enchantment;
+        } catch (Exception e) {
+            diagnostics.warning(source, identifier, "Error adding enchantment " + key + ": " + e.getMessage());
+            return null;
+        }
+    }
+    
+    /**
+     * Reads a material name the way item configs write it
+     * 
+     * @param value The configured value
+     * @return The material, or null if the value is missing or unknown
+     */
+    public static Material parseMaterial(Object value) {
+        return value != null ? Material.matchMaterial(asString(value)) : null;
+    }
+    
+    // Conversions below follow the ConfigurationSection getters so values are read the same way as before
+    
+    private static String asString(Object value) {
+        return value != null ? value.toString() : null;
+    }
+    
+    private static int asInt(Object value) {
+        return NumberConversions.toInt(value); // Also reads quoted numbers, like getInt
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> asMap(Object value) {
+        if (value instanceof ConfigurationSection section) return section.getValues(false);
+        if (value instanceof Map<?, ?> map) return (Map<String, Object>) map;
+        return null;
+    }
+    
+    private static boolean asBoolean(Object value) {
+        return value instanceof Boolean bool && bool;
+    }
+    
+    private static List<String> asStringList(Object value) {
+        if (!(value instanceof List<?> list)) return Collections.emptyList();
+        
+        List<String> result = new ArrayList<>(list.size());
+        for (Object element : list) {
+            if (element instanceof String || element instanceof Number || element instanceof Boolean || element instanceof Character) {
+                result.add(String.valueOf(element));
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,202 @@
+package com.yrhv.coreitems.namespace.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Problems found while loading item configs.
+ * Parsers record problems here instead of logging each one, and the caller reports them
+ * once when loading is done: a summary line plus the first few problems in detail.
+ */
+public class LoadDiagnostics {
+    
+    // How many problems are logged in detail, the rest is only counted
+    private static final int MAX_LOGGED = 20;
+    
+    /**
+     * How serious a problem is
+     */
+    public enum Severity {
+        /** Something was ignored, the item still loaded as written */
+        NOTICE,
+        /** Part of an item could not be loaded */
+        WARNING,
+        /** An item or file could not be loaded at all */
+        ERROR
+    }
+    
+    /**
+     * One problem found while loading
+     */
+    public static final class Problem {
+        private final Severity severity;
+        private final String source;
+        private final String itemId;
+        private final String message;
+        
+        private Problem(Severity severity, String source, String itemId, String message) {
+            this.severity = severity;
+            this.source = source;
+            this.itemId = itemId;
+            this.message = message;
+        }
+        
+        public Severity getSeverity() {
+            return severity;
+        }
+        
+        public String getSource() {
+            return source;
+        }
+        
+        public String getItemId() {
+            return itemId;
+        }
+        
+        public String getMessage() {
+            return message;
+        }
+        
+        @Override
+        public String toString() {
+            return source + (itemId != null ? " [" + itemId + "]" : "") + ": " + message;
+        }
+    }
+    
+    private final List<Problem> problems = new ArrayList<>();
+    
+    /**
+     * Records something that was ignored
+     * 
+     * @param source The file the problem was found in
+     * @param itemId The item ID, or null if the problem is not about one item
+     * @param message What was ignored
+     */
+    public void notice(String source, String itemId, String message) {
+        add(new Problem(Severity.NOTICE, source, itemId, message));
+    }
+    
+    /**
+     * Records a part of an item that could not be loaded
+     * 
+     * @param source The file the problem was found in
+     * @param itemId The item ID, or null if the problem is not about one item
+     * @param message What went wrong
+     */
+    public void warning(String source, String itemId, String message) {
+        add(new Problem(Severity.WARNING, source, itemId, message));
+    }
+    
+    /**
+     * Records an item or file that could not be loaded
+     * 
+     * @param source The file the problem was found in
+     * @param itemId The item ID, or null if the whole file failed
+     * @param message What went wrong
+     */
+    public void error(String source, String itemId, String message) {
+        add(new Problem(Severity.ERROR, source, itemId, message));
+    }
+    
+    /**
+     * Adds all problems of another collection
+     * 
+     * @param other The other diagnostics
+     */
+    public void addAll(LoadDiagnostics other) {
+        List<Problem> copy = other.getProblems();
+        synchronized (this) {
+            problems.addAll(copy);
+        }
+    }
+    
+    /**
+     * Records a problem that was found earlier, for problems stored in the namespace cache
+     * 
+     * @param severity How serious the problem is
+     * @param source The file the problem was found in
+     * @param itemId The item ID, or null if the problem is not about one item
+     * @param message The problem
+     */
+    void add(Severity severity, String source, String itemId, String message) {
+        add(new Problem(severity, source, itemId, message));
+    }
+    
+    private synchronized void add(Problem problem) {
+        problems.add(problem);
+    }
+    
+    /**
+     * Gets all recorded problems in the order they were found
+     * 
+     * @return A copy of the problems
+     */
+    public synchronized List<Problem> getProblems() {
+        return Collections.unmodifiableList(new ArrayList<>(problems));
+    }
+    
+    /**
+     * Counts the problems of a severity
+     * 
+     * @param severity The severity
+     * @return The number of problems
+     */
+    public synchronized int count(Severity severity) {
+        int count = 0;
+        for (Problem problem : problems) {
+            if (problem.severity == severity) count++;
+        }
+        return count;
+    }
+    
+    /**
+     * Checks if no problems were recorded
+     * 
+     * @return True if loading went without problems
+     */
+    public synchronized boolean isEmpty() {
+        return problems.isEmpty();
+    }
+    
+    /**
+     * Logs a summary and the first problems. Notices are only logged in detail at FINE level.
+     * 
+     * @param logger The logger to report to
+     * @param what What was loaded, for the summary line
+     */
+    public void report(Logger logger, String what) {
+        List<Problem> snapshot = getProblems();
+        if (snapshot.isEmpty()) return;
+        
+        int errors = 0;
+        int warnings = 0;
+        int notices = 0;
+        for (Problem problem : snapshot) {
+            switch (problem.severity) {
+                case ERROR -> errors++;
+                case WARNING -> warnings++;
+                default -> notices++;
+            }
+        }
+        
+        Level summaryLevel = errors > 0 || warnings > 0 ? Level.WARNING : Level.INFO;
+        logger.log(summaryLevel, "Problems while loading " + what + ": " + errors + " errors, "
+                + warnings + " warnings, " + notices + " ignored properties");
+        
+        int logged = 0;
+        for (Problem problem : snapshot) {
+            if (problem.severity == Severity.NOTICE) {
+                logger.fine("  " + problem);
+                continue;
+            }
+            if (logged++ == MAX_LOGGED) {
+                logger.warning("  ... and " + (errors + warnings - MAX_LOGGED) + " more");
+                break;
+            }
+            logger.log(problem.severity == Severity.ERROR ? Level.SEVERE : Level.WARNING, "  " + problem);
+        }
+    }
+}
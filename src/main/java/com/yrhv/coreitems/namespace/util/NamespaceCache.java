@@ -0,0 +1,344 @@
+package com.yrhv.coreitems.namespace.util;
+
+import com.yrhv.coreitems.give.model.CommandProperties;
+import com.yrhv.coreitems.give.model.CustomItem;
+import com.yrhv.coreitems.namespace.model.ItemEntry;
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemFlag;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Binary cache of parsed namespace files.
+ * Each namespace file is stored in its own cache file together with the SHA-256 hash of the
+ * YAML it was compiled from. As long as the hash matches, loading the namespace only reads plain
+ * fields: no YAML parsing and no color translation. Enchantments are stored by key and still
+ * resolved against the registry on the main thread. Problems found while parsing are stored
+ * too and reported again on every load, like those of a file that is parsed.
+ */
+public class NamespaceCache {
+    
+    private static final int FILE_MAGIC = 0x43494E53; // "CINS"
+    
+    // Bump whenever the layout below or the meaning of a parsed field changes
+    private static final int FILE_VERSION = 3;
+    
+    private final File cacheDir;
+    
+    /**
+     * Creates a cache stored in the given directory
+     * 
+     * @param cacheDir The cache directory
+     */
+    public NamespaceCache(File cacheDir) {
+        this.cacheDir = cacheDir;
+    }
+    
+    /**
+     * Computes the hash a cache entry is keyed by
+     * 
+     * @param source The contents of the source file
+     * @return The SHA-256 hash
+     */
+    public static byte[] hash(byte[] source) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(source);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+    
+    /**
+     * Computes the hash a cache entry is keyed by without loading the whole file into memory
+     * 
+     * @param source The source file
+     * @return The SHA-256 hash
+     * @throws IOException If the file could not be read
+     */
+    public static byte[] hash(Path source) throws IOException {
+        try (InputStream in = Files.newInputStream(source)) {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] buffer = new byte[64 * 1024];
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                digest.update(buffer, 0, read);
+            }
+            return digest.digest();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+    
+    /**
+     * Reads a namespace file from the cache
+     * 
+     * @param parsed The empty parsed file to fill
+     * @param sourceHash The hash of the current source file contents
+     * @return True if the cache held an entry for this exact source and it was read
+     * @throws IOException If the cache file exists but is damaged
+     */
+    boolean read(NamespaceLoader.ParsedFile parsed, byte[] sourceHash) throws IOException {
+        File file = cacheFile(parsed.getCacheKey());
+        if (!file.isFile()) return false;
+        
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file.toPath())))) {
+            if (in.readInt() != FILE_MAGIC || in.readInt() != FILE_VERSION) return false;
+            
+            byte[] storedHash = new byte[in.readUnsignedByte()];
+            in.readFully(storedHash);
+            if (!Arrays.equals(storedHash, sourceHash) || !parsed.getCacheKey().equals(readString(in))) return false;
+            
+            int itemCount = in.readInt();
+            for (int i = 0; i < itemCount; i++) {
+                CustomItem item = readItem(in, readString(in), parsed);
+                if (item == null) return false; // Server no longer knows a material or flag, reparse
+                parsed.addEntry(new ItemEntry(item));
+            }
+            
+            int problemCount = in.readInt();
+            for (int i = 0; i < problemCount; i++) {
+                LoadDiagnostics.Severity severity = LoadDiagnostics.Severity.values()[in.readUnsignedByte()];
+                parsed.getDiagnostics().add(severity, readString(in), readNullableString(in), readString(in));
+            }
+            return true;
+        }
+    }
+    
+    /**
+     * Writes a freshly parsed namespace file to the cache, replacing the old entry atomically.
+     * Every write goes through its own temp file, so the watcher and a full reload can write
+     * the same entry at the same time; the last one to finish wins.
+     * 
+     * @param parsed The parsed file, before its enchantments are resolved
+     * @param sourceHash The hash of the source file it was parsed from
+     * @throws IOException If the cache file could not be written
+     */
+    void write(NamespaceLoader.ParsedFile parsed, byte[] sourceHash) throws IOException {
+        Map<CustomItem, List<ItemParser.PendingEnchantment>> enchantments = new HashMap<>();
+        for (ItemParser.PendingEnchantment pending : parsed.getPendingEnchantments()) {
+            enchantments.computeIfAbsent(pending.item, item -> new ArrayList<>()).add(pending);
+        }
+        
+        Path target = cacheFile(parsed.getCacheKey()).toPath();
+        Files.createDirectories(target.getParent());
+        Path tempFile = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            writeEntry(tempFile, parsed, sourceHash, enchantments);
+            try {
+                Files.move(tempFile, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+    
+    private void writeEntry(Path file, NamespaceLoader.ParsedFile parsed, byte[] sourceHash,
+                            Map<CustomItem, List<ItemParser.PendingEnchantment>> enchantments) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(FILE_MAGIC);
+            out.writeInt(FILE_VERSION);
+            out.writeByte(sourceHash.length);
+            out.write(sourceHash);
+            writeString(out, parsed.getCacheKey());
+            
+            out.writeInt(parsed.getEntries().size());
+            for (ItemEntry entry : parsed.getEntries()) {
+                CustomItem item = entry.get();
+                writeString(out, item.getId());
+                writeItem(out, item, enchantments.getOrDefault(item, List.of()));
+            }
+            
+            List<LoadDiagnostics.Problem> problems = parsed.getDiagnostics().getProblems();
+            out.writeInt(problems.size());
+            for (LoadDiagnostics.Problem problem : problems) {
+                out.writeByte(problem.getSeverity().ordinal());
+                writeString(out, problem.getSource());
+                writeNullableString(out, problem.getItemId());
+                writeString(out, problem.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * Deletes the cache files of namespace files that no longer exist
+     * 
+     * @param cacheKeys The cache keys of the files that are still loaded
+     */
+    public void retainOnly(Collection<String> cacheKeys) {
+        Path root = cacheDir.toPath();
+        if (!Files.isDirectory(root)) return;
+        
+        try (Stream<Path> paths = Files.walk(root)) {
+            paths.filter(path -> path.getFileName().toString().endsWith(".bin"))
+                    .filter(path -> {
+                        String relative = NamespaceLoader.relativePath(root, path);
+                        return !cacheKeys.contains(relative.substring(0, relative.length() - 4));
+                    })
+                    .forEach(path -> path.toFile().delete());
+        } catch (IOException | UncheckedIOException ignored) {
+            // Stale cache files are harmless, they are only read when their hash matches
+        }
+    }
+    
+    private File cacheFile(String cacheKey) {
+        return new File(cacheDir, cacheKey + ".bin");
+    }
+    
+    private void writeItem(DataOutputStream out, CustomItem item, List<ItemParser.PendingEnchantment> enchantments) throws IOException {
+        writeString(out, item.getMaterial().name());
+        writeNullableString(out, item.getDisplayName());
+        
+        out.writeInt(item.getLore().size());
+        for (String line : item.getLore()) {
+            writeString(out, line);
+        }
+        
+        out.writeInt(item.getCustomModelData());
+        out.writeBoolean(item.isUnbreakable());
+        out.writeBoolean(item.isHideAttributes());
+        out.writeBoolean(item.isGlowing());
+        out.writeBoolean(item.isEnchanted());
+        
+        out.writeInt(enchantments.size());
+        for (ItemParser.PendingEnchantment pending : enchantments) {
+            writeString(out, pending.key);
+            out.writeInt(pending.level);
+        }
+        
+        out.writeInt(item.getItemFlags().size());
+        for (ItemFlag flag : item.getItemFlags()) {
+            writeString(out, flag.name());
+        }
+        
+        writeCommand(out, item.getRightClickProperties());
+        writeCommand(out, item.getLeftClickProperties());
+        
+        out.writeInt(item.getCooldown());
+        writeNullableString(out, item.getCooldownMessage());
+        out.writeInt(item.getCooldownMessageInterval());
+        out.writeBoolean(item.isShowItemCooldown());
+        out.writeBoolean(item.shouldCancelRightClick());
+        out.writeBoolean(item.shouldCancelLeftClick());
+        out.writeBoolean(item.isDroppable());
+        writeNullableString(out, item.getDropMessage());
+    }
+    
+    private CustomItem readItem(DataInputStream in, String key, NamespaceLoader.ParsedFile parsed) throws IOException {
+        CustomItem item = new CustomItem(key);
+        
+        Material material = Material.getMaterial(readString(in));
+        if (material == null) return null;
+        item.setMaterial(material);
+        item.setDisplayName(readNullableString(in));
+        
+        int loreLines = in.readInt();
+        List<String> lore = new ArrayList<>(loreLines);
+        for (int i = 0; i < loreLines; i++) {
+            lore.add(readString(in));
+        }
+        item.setLore(lore);
+        
+        item.setCustomModelData(in.readInt());
+        item.setUnbreakable(in.readBoolean());
+        item.setHideAttributes(in.readBoolean());
+        item.setGlowing(in.readBoolean());
+        item.setEnchanted(in.readBoolean());
+        
+        int enchantmentCount = in.readInt();
+        for (int i = 0; i < enchantmentCount; i++) {
+            String enchantKey = readString(in);
+            parsed.getPendingEnchantments().add(new ItemParser.PendingEnchantment(item, enchantKey, in.readInt()));
+        }
+        
+        int flagCount = in.readInt();
+        for (int i = 0; i < flagCount; i++) {
+            try {
+                item.addItemFlag(ItemFlag.valueOf(readString(in)));
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+        
+        item.setRightClickProperties(readCommand(in));
+        item.setLeftClickProperties(readCommand(in));
+        
+        item.setCooldown(in.readInt());
+        item.setCooldownMessage(readNullableString(in));
+        item.setCooldownMessageInterval(in.readInt());
+        item.setShowItemCooldown(in.readBoolean());
+        item.setCancelRightClick(in.readBoolean());
+        item.setCancelLeftClick(in.readBoolean());
+        item.setDroppable(in.readBoolean());
+        item.setDropMessage(readNullableString(in));
+        return item;
+    }
+    
+    private void writeCommand(DataOutputStream out, CommandProperties properties) throws IOException {
+        out.writeBoolean(properties != null);
+        if (properties == null) return;
+        
+        writeNullableString(out, properties.getCommand());
+        out.writeInt(properties.getCooldown());
+        writeNullableString(out, properties.getCooldownMessage());
+        out.writeInt(properties.getCooldownMessageInterval());
+        out.writeBoolean(properties.isShowItemCooldown());
+    }
+    
+    private CommandProperties readCommand(DataInputStream in) throws IOException {
+        if (!in.readBoolean()) return null;
+        
+        CommandProperties properties = new CommandProperties(readNullableString(in));
+        properties.setCooldown(in.readInt());
+        properties.setCooldownMessage(readNullableString(in));
+        properties.setCooldownMessageInterval(in.readInt());
+        properties.setShowItemCooldown(in.readBoolean());
+        return properties;
+    }
+    
+    // DataOutputStream.writeUTF is limited to 64 KB, long lore or commands must not break the cache
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+    
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+    
+    private static void writeNullableString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            writeString(out, value);
+        }
+    }
+    
+    private static String readNullableString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? readString(in) : null;
+    }
+}
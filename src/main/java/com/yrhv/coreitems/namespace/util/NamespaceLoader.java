@@ -1,29 +1,36 @@
 package com.yrhv.coreitems.namespace.util;
 
-import com.yrhv.coreitems.give.model.CommandProperties;
 import com.yrhv.coreitems.give.model.CustomItem;
+import com.yrhv.coreitems.namespace.model.ItemEntry;
 import com.yrhv.coreitems.namespace.model.ItemNamespace;
-import org.bukkit.ChatColor;
+import com.yrhv.coreitems.namespace.model.LazyDefinition;
 import org.bukkit.Material;
-import org.bukkit.NamespacedKey;
-import org.bukkit.Registry;
 import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.InvalidConfigurationException;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.enchantments.Enchantment;
-import org.bukkit.inventory.ItemFlag;
 import org.bukkit.plugin.java.JavaPlugin;
 
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.logging.Level;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Utility class for loading item namespaces from configuration
@@ -31,6 +38,11 @@ import java.util.stream.Collectors;
 public class NamespaceLoader {
     
     private final JavaPlugin plugin;
+    private final NamespaceCache cache;
+    private final ItemParser itemParser = new ItemParser();
+    private volatile boolean cacheEnabled = true;
+    private volatile Set<String> lazyNamespaces = Collections.emptySet();
+    private volatile long streamingThreshold = -1;
     
     /**
      * Creates a new namespace loader
@@ -39,290 +51,434 @@ public class NamespaceLoader {
      */
     public NamespaceLoader(JavaPlugin plugin) {
         this.plugin = plugin;
+        this.cache = new NamespaceCache(new File(plugin.getDataFolder(), "cache"));
     }
     
     /**
-     * Loads items into a namespace from its configuration file
+     * Sets whether parsed namespaces are read from and written to the binary cache
      * 
-     * @param namespace The namespace to load
+     * @param cacheEnabled True to use the cache
      */
-    public void loadNamespace(ItemNamespace namespace) {
-        // Clear any existing items
-        namespace.clearItems();
-        
-        // Load the configuration
-        FileConfiguration config = YamlConfiguration.loadConfiguration(namespace.getConfigFile());
-        
-        // Process each item section
-        for (String key : config.getKeys(false)) {
-            if (key.startsWith("#")) continue; // Skip comment sections
-            
-            ConfigurationSection section = config.getConfigurationSection(key);
-            if (section == null) continue;
-            
-            try {
-                CustomItem item = parseCustomItem(key, section);
-                namespace.addItem(key, item);
-                plugin.getLogger().info("Loaded custom item: " + namespace.getName() + ":" + key);
-            } catch (Exception e) {
-                plugin.getLogger().log(Level.WARNING, "Failed to load custom item: " + namespace.getName() + ":" + key, e);
-            }
+    public void setCacheEnabled(boolean cacheEnabled) {
+        this.cacheEnabled = cacheEnabled;
+    }
+    
+    /**
+     * Sets which namespaces are loaded lazily: only item IDs and materials are read at load time,
+     * each item is built the first time it is used. "*" makes every namespace lazy.
+     * 
+     * @param namespaceNames The names of the lazy namespaces
+     */
+    public void setLazyNamespaces(Collection<String> namespaceNames) {
+        Set<String> names = new HashSet<>();
+        for (String namespaceName : namespaceNames) {
+            names.add(namespaceName.toLowerCase());
         }
-        
-        plugin.getLogger().info("Loaded " + namespace.getItems().size() + " items in namespace: " + namespace.getName());
+        this.lazyNamespaces = names;
+    }
+    
+    /**
+     * Sets the size from which files are read with the {@link StreamingItemReader} instead of
+     * YamlConfiguration, which keeps the memory used by very large files low
+     * 
+     * @param bytes The file size in bytes, or a negative value to never stream
+     */
+    public void setStreamingThreshold(long bytes) {
+        this.streamingThreshold = bytes;
+    }
+    
+    private boolean isLazy(String namespaceName) {
+        Set<String> names = lazyNamespaces;
+        return names.contains("*") || names.contains(namespaceName.toLowerCase());
+    }
+    
+    /**
+     * Gets the binary namespace cache
+     * 
+     * @return The cache
+     */
+    public NamespaceCache getCache() {
+        return cache;
+    }
+    
+    /**
+     * Name of the file a namespace was originally limited to, it is still loaded first
+     */
+    public static final String PRIMARY_FILE = "customs.yml";
+    
+    /**
+     * Order in which the files of a namespace are merged: customs.yml first, then by relative path.
+     * When an item ID is defined in several files, the earliest file wins.
+     */
+    public static final Comparator<String> FILE_ORDER = Comparator
+            .comparing((String path) -> !path.equals(PRIMARY_FILE))
+            .thenComparing(Comparator.naturalOrder());
+    
+    /**
+     * Lists the item files of a namespace directory, including files in subfolders
+     * 
+     * @param namespaceDir The namespace directory
+     * @return Relative paths with '/' separators, in {@link #FILE_ORDER}
+     * @throws IOException If the directory could not be read
+     */
+    public static List<String> listNamespaceFiles(File namespaceDir) throws IOException {
+        Path root = namespaceDir.toPath();
+        try (Stream<Path> paths = Files.walk(root)) {
+            return paths.filter(Files::isRegularFile)
+                    .filter(NamespaceLoader::isItemFile)
+                    .map(path -> relativePath(root, path))
+                    .sorted(FILE_ORDER)
+                    .collect(Collectors.toList());
+        }
+    }
+    
+    /**
+     * Checks if a file can hold items of a namespace
+     * 
+     * @param path The file path
+     * @return True for .yml files
+     */
+    public static boolean isItemFile(Path path) {
+        return path.getFileName().toString().endsWith(".yml");
+    }
+    
+    /**
+     * Gets the path of a file relative to its namespace directory
+     * 
+     * @param namespaceDir The namespace directory
+     * @param path The file path
+     * @return The relative path with '/' separators
+     */
+    public static String relativePath(Path namespaceDir, Path path) {
+        return namespaceDir.relativize(path).toString().replace(File.separatorChar, '/');
     }
     
     /**
-     * Parse a custom item from its configuration section
+     * Result of parsing one file of a namespace off the main thread.
+     * The items are detached (not yet visible to the rest of the plugin) and still lack
+     * their enchantments, which need the Bukkit registry and are resolved by
+     * {@link #resolveFile(ParsedFile)} on the main thread. Once resolved, a parsed file
+     * can be merged into new versions of its namespace without being parsed again.
      */
-    private CustomItem parseCustomItem(String identifier, ConfigurationSection section) {
-        CustomItem item = new CustomItem(identifier);
+    public static class ParsedFile {
+        private final String namespaceName;
+        private final String relativePath;
+        private final List<ItemEntry> entries = new ArrayList<>();
+        private final Map<String, Integer> entryPositions = new HashMap<>();
+        private final List<ItemParser.PendingEnchantment> pendingEnchantments = new ArrayList<>();
+        private final List<LazyItem> unresolvedLazyItems = new ArrayList<>();
+        private final LoadDiagnostics diagnostics = new LoadDiagnostics();
+        private long parseNanos;
+        private boolean fromCache;
         
-        // Material is required
-        String materialName = section.getString("material");
-        if (materialName == null) {
-            throw new IllegalArgumentException("Custom item " + identifier + " is missing material property");
+        ParsedFile(String namespaceName, String relativePath) {
+            this.namespaceName = namespaceName;
+            this.relativePath = relativePath;
         }
         
-        Material material = Material.matchMaterial(materialName);
-        if (material == null) {
-            throw new IllegalArgumentException("Invalid material for custom item " + identifier + ": " + materialName);
+        /**
+         * Adds an item. A key that occurs twice in the file replaces the earlier item in its
+         * position, which is what YamlConfiguration does, so a file loads the same whether it
+         * is streamed or not.
+         */
+        void addEntry(ItemEntry entry) {
+            Integer position = entryPositions.putIfAbsent(entry.getId(), entries.size());
+            if (position != null) {
+                entries.set(position, entry);
+            } else {
+                entries.add(entry);
+            }
         }
         
-        item.setMaterial(material);
+        List<ItemParser.PendingEnchantment> getPendingEnchantments() {
+            return pendingEnchantments;
+        }
         
-        // Parse optional properties
-        if (section.contains("name")) {
-            String name = section.getString("name");
-            name = translateHexColorCodes(name);
-            item.setDisplayName(ChatColor.translateAlternateColorCodes('&', name));
+        /**
+         * Gets the key this file is stored under in the binary cache
+         * 
+         * @return The cache key
+         */
+        String getCacheKey() {
+            return namespaceName.toLowerCase() + "/" + relativePath;
         }
         
-        if (section.contains("lore")) {
-            List<String> lore = section.getStringList("lore").stream()
-                    .map(this::translateHexColorCodes)
-                    .map(line -> ChatColor.translateAlternateColorCodes('&', line))
-                    .collect(Collectors.toList());
-            item.setLore(lore);
+        /**
+         * Gets the file name used in diagnostics
+         * 
+         * @return The namespace name and relative path
+         */
+        public String getSource() {
+            return namespaceName + "/" + relativePath;
         }
         
-        if (section.contains("custom-model-data")) {
-            item.setCustomModelData(section.getInt("custom-model-data"));
+        /**
+         * Gets the problems found while parsing and resolving the file
+         * 
+         * @return The diagnostics
+         */
+        public LoadDiagnostics getDiagnostics() {
+            return diagnostics;
         }
         
-        if (section.contains("unbreakable")) {
-            item.setUnbreakable(section.getBoolean("unbreakable"));
+        /**
+         * Gets the name of the namespace the file belongs to
+         * 
+         * @return The namespace name
+         */
+        public String getNamespaceName() {
+            return namespaceName;
         }
         
-        if (section.contains("hide-attributes")) {
-            item.setHideAttributes(section.getBoolean("hide-attributes"));
+        /**
+         * Gets the path of the file relative to its namespace directory
+         * 
+         * @return The relative path
+         */
+        public String getRelativePath() {
+            return relativePath;
         }
         
-        if (section.contains("glowing")) {
-            item.setGlowing(section.getBoolean("glowing"));
+        /**
+         * Gets the items defined in the file, in file order
+         * 
+         * @return The item entries
+         */
+        public List<ItemEntry> getEntries() {
+            return Collections.unmodifiableList(entries);
         }
         
-        if (section.contains("is_enchanted")) {
-            item.setEnchanted(section.getBoolean("is_enchanted"));
+        /**
+         * Gets how long parsing took
+         * 
+         * @return The parse time in milliseconds
+         */
+        public double getParseMillis() {
+            return parseNanos / 1_000_000.0;
         }
         
-        // Parse enchantments
-        if (section.contains("enchantments")) {
-            ConfigurationSection enchants = section.getConfigurationSection("enchantments");
-            if (enchants != null) {
-                for (String enchantKey : enchants.getKeys(false)) {
-                    try {
-                        // Convert enchantment name to minecraft key format (lowercase, no underscores)
-                        String formattedKey = enchantKey.toLowerCase().replace("_", "");
-                        Enchantment enchantment = Registry.ENCHANTMENT.get(NamespacedKey.minecraft(formattedKey));
-                        if (enchantment != null) {
-                            int level = enchants.getInt(enchantKey);
-                            item.addEnchantment(enchantment, level);
-                        } else {
-                            plugin.getLogger().warning("Unknown enchantment: " + enchantKey + " for item " + identifier);
-                        }
-                    } catch (Exception e) {
-                        plugin.getLogger().log(Level.WARNING, "Error adding enchantment: " + enchantKey, e);
-                    }
-                }
-            }
+        /**
+         * Checks if the file was read from the binary cache instead of its YAML
+         * 
+         * @return True if loaded from the cache
+         */
+        public boolean isFromCache() {
+            return fromCache;
         }
+    }
+    
+    /**
+     * Parses one file of a namespace.
+     * If the binary cache holds an entry for the exact file contents it is used instead of the YAML.
+     * Files of lazy namespaces skip the cache and only index their items, see {@link #setLazyNamespaces}.
+     * Safe to call from any thread: it only reads files and builds plain objects.
+     * 
+     * @param namespaceName The namespace name
+     * @param namespaceDir The namespace directory
+     * @param relativePath The path of the file within the namespace directory
+     * @return The parsed file
+     * @throws IOException If the file could not be read
+     * @throws InvalidConfigurationException If the file is not valid YAML
+     */
+    public ParsedFile parseFile(String namespaceName, File namespaceDir, String relativePath)
+            throws IOException, InvalidConfigurationException {
+        long start = System.nanoTime();
+        Path file = new File(namespaceDir, relativePath).toPath();
+        long threshold = streamingThreshold;
+        boolean lazy = isLazy(namespaceName);
+        // Lazy items are read again from their line when built, which needs the streaming reader
+        boolean streaming = lazy || threshold >= 0 && Files.size(file) >= threshold;
+        byte[] source = streaming ? null : Files.readAllBytes(file);
+        boolean useCache = cacheEnabled && !lazy;
+        byte[] sourceHash = !useCache ? null : streaming ? NamespaceCache.hash(file) : NamespaceCache.hash(source);
         
-        // Parse item flags
-        if (section.contains("item-flags")) {
-            List<String> flagList = section.getStringList("item-flags");
-            for (String flagName : flagList) {
-                try {
-                    ItemFlag flag = ItemFlag.valueOf(flagName.toUpperCase());
-                    item.addItemFlag(flag);
-                } catch (IllegalArgumentException e) {
-                    plugin.getLogger().warning("Unknown item flag: " + flagName + " for item " + identifier);
+        ParsedFile parsed = new ParsedFile(namespaceName, relativePath);
+        
+        if (useCache) {
+            try {
+                if (cache.read(parsed, sourceHash)) {
+                    parsed.fromCache = true;
+                    parsed.parseNanos = System.nanoTime() - start;
+                    return parsed;
                 }
+            } catch (Exception e) {
+                plugin.getLogger().warning("Ignoring damaged cache for " + parsed.getCacheKey() + ": " + e.getMessage());
             }
+            parsed = new ParsedFile(namespaceName, relativePath);
         }
         
-        // Parse click commands
-        if (section.contains("right-click-command")) {
-            Object rightClickObj = section.get("right-click-command");
+        if (streaming) {
+            // Items are built one by one while the file is read, diagnostics point at their line
+            ParsedFile target = parsed;
+            try (Reader reader = StreamingItemReader.open(file)) {
+                StreamingItemReader.read(reader, (key, values, line) -> {
+                    if (lazy) {
+                        addLazyItem(target, key, values, file, line);
+                    } else {
+                        addItem(target, key, values, target.getSource() + ":" + line);
+                    }
+                });
+            }
+        } else {
+            // Load the configuration, failing instead of silently yielding an empty file
+            FileConfiguration config = new YamlConfiguration();
+            config.loadFromString(new String(source, StandardCharsets.UTF_8));
             
-            // Check if this is a string or a section with nested properties
-            if (rightClickObj instanceof String) {
-                // Simple string command
-                item.setRightClickCommand((String) rightClickObj);
-            } else if (section.isConfigurationSection("right-click-command")) {
-                // Nested command properties
-                ConfigurationSection rightClickSection = section.getConfigurationSection("right-click-command");
-                String command = rightClickSection.getString("command");
-                if (command == null) {
-                    // Old format - the key itself is the command
-                    command = rightClickSection.getName();
-                }
+            // Process each item section
+            for (String key : config.getKeys(false)) {
+                ConfigurationSection section = config.getConfigurationSection(key);
+                if (section == null) continue;
                 
-                // Create command properties
-                CommandProperties properties = new CommandProperties(command);
-                item.setRightClickProperties(properties);
-                
-                // Parse cooldown properties
-                if (rightClickSection.contains("cooldown")) {
-                    properties.setCooldown(rightClickSection.getInt("cooldown"));
-                }
-                
-                if (rightClickSection.contains("cooldown-message")) {
-                    String message = rightClickSection.getString("cooldown-message");
-                    message = translateHexColorCodes(message);
-                    properties.setCooldownMessage(ChatColor.translateAlternateColorCodes('&', message));
-                }
-                
-                if (rightClickSection.contains("cooldown-message-interval")) {
-                    properties.setCooldownMessageInterval(rightClickSection.getInt("cooldown-message-interval"));
-                }
-                
-                // Handle show-item-cooldown property
-                if (rightClickSection.contains("show-item-cooldown")) {
-                    properties.setShowItemCooldown(rightClickSection.getBoolean("show-item-cooldown"));
-                }
-            } else {
-                // Just a simple command
-                item.setRightClickCommand(rightClickObj.toString());
+                addItem(parsed, key, section.getValues(false), parsed.getSource());
             }
         }
         
-        if (section.contains("left-click-command")) {
-            Object leftClickObj = section.get("left-click-command");
-            
-            // Check if this is a string or a section with nested properties
-            if (leftClickObj instanceof String) {
-                // Simple string command
-                item.setLeftClickCommand((String) leftClickObj);
-            } else if (section.isConfigurationSection("left-click-command")) {
-                // Nested command properties
-                ConfigurationSection leftClickSection = section.getConfigurationSection("left-click-command");
-                String command = leftClickSection.getString("command");
-                if (command == null) {
-                    // Old format - the key itself is the command
-                    command = leftClickSection.getName();
-                }
-                
-                // Create command properties
-                CommandProperties properties = new CommandProperties(command);
-                item.setLeftClickProperties(properties);
-                
-                // Parse cooldown properties
-                if (leftClickSection.contains("cooldown")) {
-                    properties.setCooldown(leftClickSection.getInt("cooldown"));
-                }
-                
-                if (leftClickSection.contains("cooldown-message")) {
-                    String message = leftClickSection.getString("cooldown-message");
-                    message = translateHexColorCodes(message);
-                    properties.setCooldownMessage(ChatColor.translateAlternateColorCodes('&', message));
-                }
-                
-                if (leftClickSection.contains("cooldown-message-interval")) {
-                    properties.setCooldownMessageInterval(leftClickSection.getInt("cooldown-message-interval"));
-                }
-                
-                // Parse Minecraft cooldown properties for left-click command
-                // Handle show-item-cooldown property
-                if (leftClickSection.contains("show-item-cooldown")) {
-                    properties.setShowItemCooldown(leftClickSection.getBoolean("show-item-cooldown"));
-                }
-            } else {
-                // Just a simple command
-                item.setLeftClickCommand(leftClickObj.toString());
+        if (useCache) {
+            try {
+                cache.write(parsed, sourceHash);
+            } catch (IOException e) {
+                plugin.getLogger().warning("Could not write cache for " + parsed.getCacheKey() + ": " + e.getMessage());
             }
         }
         
-        // Parse per-item click action properties
-        if (section.contains("cooldown")) {
-            item.setCooldown(section.getInt("cooldown"));
-        }
+        parsed.parseNanos = System.nanoTime() - start;
+        return parsed;
+    }
+    
+    /**
+     * Parses one item section of a file, recording a failure in the file's diagnostics
+     */
+    private void addItem(ParsedFile parsed, String key, Map<String, Object> values, String source) {
+        if (key.startsWith("#")) return; // Skip comment sections
         
-        if (section.contains("cooldown-message")) {
-            String message = section.getString("cooldown-message");
-            message = translateHexColorCodes(message);
-            item.setCooldownMessage(ChatColor.translateAlternateColorCodes('&', message));
+        try {
+            CustomItem item = itemParser.parse(key, values, source, parsed.diagnostics, parsed.pendingEnchantments);
+            parsed.addEntry(new ItemEntry(item));
+        } catch (Exception e) {
+            parsed.diagnostics.error(source, key, "Failed to load custom item: " + e.getMessage());
         }
+    }
+    
+    /**
+     * Indexes an item that is only built on first use. The material is checked now so the
+     * item can be matched without building it. Only a {@link LazyDefinition} and the enchantments
+     * are kept; the section itself is read from the file again when the item is built.
+     */
+    private void addLazyItem(ParsedFile parsed, String key, Map<String, Object> values, Path file, int line) {
+        if (key.startsWith("#")) return; // Skip comment sections
         
-        if (section.contains("cooldown-message-interval")) {
-            item.setCooldownMessageInterval(section.getInt("cooldown-message-interval"));
+        String source = parsed.getSource() + ":" + line;
+        try {
+            Object materialName = values.get("material");
+            Material material = ItemParser.parseMaterial(materialName);
+            if (material == null) {
+                throw new IllegalArgumentException("Missing or invalid material for custom item " + key + ": " + materialName);
+            }
+            
+            LazyItem lazyItem = new LazyItem(file, parsed.getSource(), line, key, values.get("enchantments"));
+            parsed.unresolvedLazyItems.add(lazyItem);
+            parsed.addEntry(new ItemEntry(key, material, new LazyDefinition(values), lazyItem::build));
+        } catch (Exception e) {
+            parsed.diagnostics.error(source, key, "Failed to load custom item: " + e.getMessage());
         }
+    }
+    
+    /**
+     * A lazily indexed item: where it is defined, and its enchantments. The enchantments are
+     * looked up by {@link #resolveFile} on the main thread like those of eager items, so building
+     * the item later only reads and parses its section and is safe on any thread.
+     */
+    private final class LazyItem {
+        private final Path file;
+        private final String fileSource;
+        private final int line;
+        private final String key;
+        private Object unresolvedEnchantments;
+        private volatile Map<Enchantment, Integer> enchantments = Collections.emptyMap();
         
-        // Parse show-item-cooldown property
-        if (section.contains("show-item-cooldown")) {
-            item.setShowItemCooldown(section.getBoolean("show-item-cooldown"));
+        private LazyItem(Path file, String fileSource, int line, String key, Object unresolvedEnchantments) {
+            this.file = file;
+            this.fileSource = fileSource;
+            this.line = line;
+            this.key = key;
+            this.unresolvedEnchantments = unresolvedEnchantments;
         }
         
-        if (section.contains("cancel_right_click")) {
-            item.setCancelRightClick(section.getBoolean("cancel_right_click"));
+        private String getSource() {
+            return fileSource + ":" + line;
         }
         
-        if (section.contains("cancel_left_click")) {
-            item.setCancelLeftClick(section.getBoolean("cancel_left_click"));
+        private void resolve(LoadDiagnostics diagnostics) {
+            if (unresolvedEnchantments != null) {
+                enchantments = itemParser.resolveEnchantments(key, Collections.singletonMap("enchantments", unresolvedEnchantments),
+                        getSource(), diagnostics);
+                unresolvedEnchantments = null;
+            }
         }
         
-        // Parse droppable property
-        if (section.contains("droppable")) {
-            item.setDroppable(section.getBoolean("droppable"));
+        private CustomItem build() {
+            LoadDiagnostics diagnostics = new LoadDiagnostics();
+            CustomItem item = null;
+            try {
+                Map<String, Object> values = StreamingItemReader.readItem(file, line, key);
+                if (values == null) {
+                    throw new IllegalArgumentException("No longer defined in " + fileSource);
+                }
+                
+                // Enchantments were already resolved, the pending ones are not needed
+                item = itemParser.parse(key, values, getSource(), diagnostics, new ArrayList<>());
+                enchantments.forEach(item::addEnchantment);
+            } catch (Exception e) {
+                diagnostics.error(getSource(), key, "Failed to load custom item: " + e.getMessage());
+            }
+            diagnostics.report(plugin.getLogger(), "lazy item " + key);
+            return item;
         }
+    }
+    
+    /**
+     * Finishes a parsed file by resolving the parts that need the Bukkit registry.
+     * Must be called on the main thread. Resolving a file twice has no effect.
+     * 
+     * @param parsed The parsed file
+     */
+    public void resolveFile(ParsedFile parsed) {
+        itemParser.resolveEnchantments(parsed.pendingEnchantments, parsed.getSource(), parsed.diagnostics);
+        parsed.pendingEnchantments.clear();
         
-        // Parse drop message
-        if (section.contains("drop-message")) {
-            String message = section.getString("drop-message");
-            message = translateHexColorCodes(message);
-            item.setDropMessage(ChatColor.translateAlternateColorCodes('&', message));
+        for (LazyItem lazyItem : parsed.unresolvedLazyItems) {
+            lazyItem.resolve(parsed.diagnostics);
         }
-        
-        return item;
+        parsed.unresolvedLazyItems.clear();
     }
     
     /**
-     * Translates hex color codes in the format &#RRGGBB to the Bukkit color format
-     * @param message Message containing hex color codes
-     * @return Translated message with proper hex color codes
+     * Merges resolved files into a new namespace.
+     * When an item ID (ignoring case) appears in more than one file, the first file in the
+     * given order keeps it and the duplicate is reported.
+     * 
+     * @param namespaceName The namespace name
+     * @param namespaceDir The namespace directory
+     * @param files The resolved files, in {@link #FILE_ORDER}
+     * @param diagnostics Collects duplicate item IDs
+     * @return The merged namespace
      */
-    private String translateHexColorCodes(String message) {
-        if (message == null || message.isEmpty()) {
-            return message;
-        }
+    public ItemNamespace mergeFiles(String namespaceName, File namespaceDir, Collection<ParsedFile> files, LoadDiagnostics diagnostics) {
+        ItemNamespace namespace = new ItemNamespace(namespaceName, new File(namespaceDir, PRIMARY_FILE));
+        Map<String, String> definedIn = new HashMap<>();
         
-        // Translate hex color codes (&#RRGGBB)
-        final Pattern hexPattern = Pattern.compile("&#([A-Fa-f0-9]{6})");
-        Matcher matcher = hexPattern.matcher(message);
-        StringBuffer buffer = new StringBuffer();
-        
-        while (matcher.find()) {
-            String hexCode = matcher.group(1);
-            // Convert to the format Bukkit uses for hex colors: §x§R§G§B§B§B§B
-            StringBuilder replacement = new StringBuilder("§x");
-            for (char c : hexCode.toCharArray()) {
-                replacement.append("§").append(c);
+        for (ParsedFile file : files) {
+            for (ItemEntry entry : file.getEntries()) {
+                String previous = definedIn.putIfAbsent(entry.getId().toLowerCase(), file.getRelativePath());
+                if (previous != null) {
+                    diagnostics.warning(file.getSource(), entry.getId(), "Duplicate item id, already defined in "
+                            + namespaceName + "/" + previous + " which is kept");
+                    continue;
+                }
+                namespace.addEntry(entry);
             }
-            matcher.appendReplacement(buffer, replacement.toString());
         }
-        
-        matcher.appendTail(buffer);
-        return buffer.toString();
+        return namespace;
     }
     
     /**
@@ -0,0 +1,304 @@
+package com.yrhv.coreitems.namespace.util;
+
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.yaml.snakeyaml.LoaderOptions;
+import org.yaml.snakeyaml.constructor.SafeConstructor;
+import org.yaml.snakeyaml.error.YAMLException;
+import org.yaml.snakeyaml.events.AliasEvent;
+import org.yaml.snakeyaml.events.Event;
+import org.yaml.snakeyaml.events.NodeEvent;
+import org.yaml.snakeyaml.events.ScalarEvent;
+import org.yaml.snakeyaml.nodes.NodeId;
+import org.yaml.snakeyaml.nodes.ScalarNode;
+import org.yaml.snakeyaml.nodes.Tag;
+import org.yaml.snakeyaml.parser.Parser;
+import org.yaml.snakeyaml.parser.ParserImpl;
+import org.yaml.snakeyaml.reader.StreamReader;
+import org.yaml.snakeyaml.resolver.Resolver;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads the top-level item sections of a namespace file from SnakeYAML's event stream.
+ * {@link org.bukkit.configuration.file.YamlConfiguration} first builds the whole node tree
+ * and then copies it into sections, which for files of several megabytes costs a multiple of
+ * the file size. This reader builds plain maps for one item at a time and hands each item
+ * over as soon as its section ends, so only the current item (and any anchored values) is
+ * held in memory. Scalars are converted by SnakeYAML's own constructors, so values come out
+ * with the same types as through YamlConfiguration.
+ */
+public class StreamingItemReader {
+    
+    /**
+     * Receives the items of a file in file order
+     */
+    @FunctionalInterface
+    public interface ItemHandler {
+        /**
+         * Called for every top-level section
+         * 
+         * @param key The item ID
+         * @param values The item properties; nested sections are maps, lists are lists
+         * @param line The line the item starts on (1-based)
+         */
+        void item(String key, Map<String, Object> values, int line);
+    }
+    
+    private static final String MERGE_KEY = "<<";
+    
+    private final Parser parser;
+    private final Resolver resolver = new Resolver();
+    private final ScalarConstructor constructor;
+    
+    // Anchored values are the only thing kept beyond the current item
+    private final Map<String, Object> anchors = new HashMap<>();
+    
+    private StreamingItemReader(Reader reader) {
+        LoaderOptions options = new LoaderOptions();
+        options.setCodePointLimit(Integer.MAX_VALUE); // Large files are the point of this reader
+        this.parser = new ParserImpl(new StreamReader(reader), options);
+        this.constructor = new ScalarConstructor(options);
+    }
+    
+    /**
+     * Reads all items of a YAML document. Top-level values that are not sections are skipped.
+     * 
+     * @param reader The YAML source, read to its end but not closed
+     * @param handler Receives each item as soon as its section ends
+     * @throws InvalidConfigurationException If the YAML is malformed, with the line of the problem
+     */
+    public static void read(Reader reader, ItemHandler handler) throws InvalidConfigurationException {
+        try {
+            new StreamingItemReader(reader).readStream(handler);
+        } catch (YAMLException e) {
+            throw new InvalidConfigurationException(e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Reads one item of a file again, for building a lazily indexed item without keeping its
+     * config in memory. Only the lines of the item's section are parsed; if the section uses an
+     * anchor defined elsewhere, or the file changed and the item is no longer at that line,
+     * the whole file is read instead.
+     * 
+     * @param file The YAML file
+     * @param line The line the item starts on, as passed to {@link ItemHandler#item}
+     * @param key The item ID
+     * @return The item properties, or null if the file no longer defines the item
+     * @throws IOException If the file could not be read
+     * @throws InvalidConfigurationException If the YAML is malformed
+     */
+    public static Map<String, Object> readItem(Path file, int line, String key) throws IOException, InvalidConfigurationException {
+        String section = readSection(file, line);
+        if (section != null) {
+            try {
+                Map<String, Object> values = findItem(new StringReader(section), key);
+                if (values != null) {
+                    return values;
+                }
+            } catch (InvalidConfigurationException e) {
+                // Most likely an alias of an anchor outside the section
+            }
+        }
+        
+        try (Reader reader = open(file)) {
+            return findItem(reader, key);
+        }
+    }
+    
+    private static Map<String, Object> findItem(Reader reader, String key) throws InvalidConfigurationException {
+        // The last definition of a key wins, like in YamlConfiguration
+        List<Map<String, Object>> found = new ArrayList<>(1);
+        read(reader, (itemKey, values, itemLine) -> {
+            if (itemKey.equals(key)) {
+                found.clear();
+                found.add(values);
+            }
+        });
+        return found.isEmpty() ? null : found.get(0);
+    }
+    
+    /**
+     * Gets the lines from the given one up to the next top-level key or document marker
+     */
+    private static String readSection(Path file, int line) throws IOException {
+        try (BufferedReader reader = open(file)) {
+            for (int i = 1; i < line; i++) {
+                if (reader.readLine() == null) return null;
+            }
+            String first = reader.readLine();
+            if (first == null) return null;
+            
+            StringBuilder section = new StringBuilder(first).append('\n');
+            String next;
+            while ((next = reader.readLine()) != null) {
+                if (!next.isEmpty() && !Character.isWhitespace(next.charAt(0)) && next.charAt(0) != '#') {
+                    break;
+                }
+                section.append(next).append('\n');
+            }
+            return section.toString();
+        }
+    }
+    
+    /**
+     * Opens a file the way namespace files are read for parsing
+     * 
+     * @param file The file
+     * @return A buffered UTF-8 reader
+     * @throws IOException If the file could not be opened
+     */
+    public static BufferedReader open(Path file) throws IOException {
+        return new BufferedReader(new InputStreamReader(Files.newInputStream(file), StandardCharsets.UTF_8));
+    }
+    
+    private void readStream(ItemHandler handler) throws InvalidConfigurationException {
+        expect(Event.ID.StreamStart);
+        while (!parser.checkEvent(Event.ID.StreamEnd)) {
+            expect(Event.ID.DocumentStart);
+            readDocument(handler);
+            expect(Event.ID.DocumentEnd);
+            anchors.clear();
+        }
+    }
+    
+    private void readDocument(ItemHandler handler) throws InvalidConfigurationException {
+        Event root = parser.getEvent();
+        if (root.is(Event.ID.Scalar) && readValue(root) == null) {
+            return; // Empty document
+        }
+        if (!root.is(Event.ID.MappingStart)) {
+            throw new InvalidConfigurationException("Top level is not a Map (line " + line(root) + ")");
+        }
+        
+        while (!parser.checkEvent(Event.ID.MappingEnd)) {
+            Event keyEvent = parser.getEvent();
+            String key = String.valueOf(readValue(keyEvent));
+            Event valueEvent = parser.getEvent();
+            Object value = readValue(valueEvent);
+            
+            if (value instanceof Map) {
+                @SuppressWarnings("unchecked")
+                Map<String, Object> values = (Map<String, Object>) value;
+                handler.item(key, values, line(keyEvent));
+            }
+        }
+        parser.getEvent();
+    }
+    
+    /**
+     * Reads the value that starts with the given event, including all nested values
+     */
+    private Object readValue(Event event) throws InvalidConfigurationException {
+        Object value;
+        if (event.is(Event.ID.Alias)) {
+            String anchor = ((AliasEvent) event).getAnchor();
+            if (!anchors.containsKey(anchor)) {
+                throw new InvalidConfigurationException("Unknown alias '" + anchor + "' (line " + line(event) + ")");
+            }
+            return anchors.get(anchor);
+        } else if (event.is(Event.ID.Scalar)) {
+            value = readScalar((ScalarEvent) event);
+        } else if (event.is(Event.ID.MappingStart)) {
+            value = readMapping();
+        } else if (event.is(Event.ID.SequenceStart)) {
+            value = readSequence();
+        } else {
+            throw new InvalidConfigurationException("Unexpected " + event.getEventId() + " (line " + line(event) + ")");
+        }
+        
+        String anchor = ((NodeEvent) event).getAnchor();
+        if (anchor != null) {
+            anchors.put(anchor, value);
+        }
+        return value;
+    }
+    
+    private Map<String, Object> readMapping() throws InvalidConfigurationException {
+        Map<String, Object> values = new LinkedHashMap<>();
+        List<Map<?, ?>> merged = new ArrayList<>();
+        
+        while (!parser.checkEvent(Event.ID.MappingEnd)) {
+            Event keyEvent = parser.getEvent();
+            boolean mergeKey = keyEvent instanceof ScalarEvent scalar && scalar.isPlain() && MERGE_KEY.equals(scalar.getValue());
+            Object key = mergeKey ? MERGE_KEY : readValue(keyEvent);
+            Object value = readValue(parser.getEvent());
+            
+            if (mergeKey) {
+                // Merged entries never override keys of the mapping itself
+                if (value instanceof Map<?, ?> map) {
+                    merged.add(map);
+                } else if (value instanceof List<?> list) {
+                    for (Object element : list) {
+                        if (element instanceof Map<?, ?> map) merged.add(map);
+                    }
+                }
+            } else {
+                values.put(String.valueOf(key), value);
+            }
+        }
+        parser.getEvent();
+        
+        for (Map<?, ?> map : merged) {
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                values.putIfAbsent(String.valueOf(entry.getKey()), entry.getValue());
+            }
+        }
+        return values;
+    }
+    
+    private List<Object> readSequence() throws InvalidConfigurationException {
+        List<Object> values = new ArrayList<>();
+        while (!parser.checkEvent(Event.ID.SequenceEnd)) {
+            values.add(readValue(parser.getEvent()));
+        }
+        parser.getEvent();
+        return values;
+    }
+    
+    private Object readScalar(ScalarEvent event) {
+        Tag tag = event.getTag() == null || event.getTag().equals("!")
+                ? resolver.resolve(NodeId.scalar, event.getValue(), event.getImplicit().canOmitTagInPlainScalar())
+                : new Tag(event.getTag());
+        ScalarNode node = new ScalarNode(tag, event.getValue(), event.getStartMark(), event.getEndMark(), event.getScalarStyle());
+        return constructor.constructValue(node);
+    }
+    
+    private void expect(Event.ID id) throws InvalidConfigurationException {
+        Event event = parser.getEvent();
+        if (!event.is(id)) {
+            throw new InvalidConfigurationException("Expected " + id + " but found " + event.getEventId() + " (line " + line(event) + ")");
+        }
+    }
+    
+    private static int line(Event event) {
+        return event.getStartMark() != null ? event.getStartMark().getLine() + 1 : -1;
+    }
+    
+    /**
+     * Gives access to SnakeYAML's scalar constructors without the per-document bookkeeping,
+     * which would otherwise remember every value of the file
+     */
+    private static final class ScalarConstructor extends SafeConstructor {
+        
+        private ScalarConstructor(LoaderOptions options) {
+            super(options);
+        }
+        
+        private Object constructValue(ScalarNode node) {
+            return getConstructor(node).construct(node);
+        }
+    }
+}